@@ -0,0 +1,82 @@
+package agency.v3.components.model.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.disposables.Disposables;
+import io.reactivex.observers.DisposableObserver;
+
+/**
+ * {@link DisposableBuilder#build()} cost and dispatch through the observers it builds
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class DisposableBuilderBenchmark {
+
+    private static final Integer ITEM = 42;
+
+    private DisposableObserver<Integer> allCallbacks;
+    private DisposableObserver<Integer> nextOnly;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole bh) {
+        allCallbacks = new DisposableBuilder<Integer>(false)
+                .whenStart(() -> bh.consume(1))
+                .whenNext(bh::consume)
+                .whenError(bh::consume)
+                .whenDone(() -> bh.consume(2))
+                .build();
+        allCallbacks.onSubscribe(Disposables.empty());
+
+        nextOnly = new DisposableBuilder<Integer>(false)
+                .whenNext(bh::consume)
+                .build();
+        nextOnly.onSubscribe(Disposables.empty());
+    }
+
+    @Benchmark
+    public DisposableObserver<Integer> build(Blackhole bh) {
+        return new DisposableBuilder<Integer>(false)
+                .whenNext(bh::consume)
+                .whenError(bh::consume)
+                .build();
+    }
+
+    @Benchmark
+    public void dispatchOnNext() {
+        allCallbacks.onNext(ITEM);
+    }
+
+    /**
+     * Dispatch through an observer that defines a single callback, the rest are skipped
+     */
+    @Benchmark
+    public void dispatchOnNextSparse() {
+        nextOnly.onNext(ITEM);
+    }
+
+    /**
+     * Full observer lifecycle: build, subscribe, one item, completion
+     */
+    @Benchmark
+    public DisposableObserver<Integer> buildAndDispatch(Blackhole bh) {
+        DisposableObserver<Integer> observer = new DisposableBuilder<Integer>(false)
+                .whenNext(bh::consume)
+                .whenDone(() -> bh.consume(0))
+                .build();
+        observer.onSubscribe(Disposables.empty());
+        observer.onNext(ITEM);
+        observer.onComplete();
+        return observer;
+    }
+}
@@ -0,0 +1,135 @@
+package agency.v3.components.model.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+
+/**
+ * {@link DisposeBag} and {@link ConcurrentDisposeBag} operations on bags holding 10 to 100k entries
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class DisposeBagBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int size;
+
+    private String[] names;
+    private DisposeBag bag;
+    private ConcurrentDisposeBag concurrentBag;
+    private ConcurrentDisposeBag.Slot slot;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUpNames() {
+        //names are built in advance, so that benchmark does not measure String concatenation
+        names = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = "disposable-" + i;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void fillBag() {
+        bag = new DisposeBag();
+        concurrentBag = new ConcurrentDisposeBag();
+        for (String name : names) {
+            bag.addDisposable(name, Disposables.empty());
+            concurrentBag.addDisposable(name, Disposables.empty());
+        }
+        slot = concurrentBag.slot();
+        cursor = 0;
+    }
+
+    private String nextName() {
+        String name = names[cursor];
+        cursor = cursor + 1 == size ? 0 : cursor + 1;
+        return name;
+    }
+
+    /**
+     * Replaces an existing entry, which cancels the previous one
+     */
+    @Benchmark
+    public void addDisposable() {
+        bag.addDisposable(nextName(), Disposables.empty());
+    }
+
+    /**
+     * Adds an entry into a bag of given size and cancels it right away
+     */
+    @Benchmark
+    public void addAndCancel() {
+        bag.addDisposable("transient", Disposables.empty());
+        bag.cancel("transient");
+    }
+
+    /**
+     * Cancels a name that is not in the bag
+     */
+    @Benchmark
+    public void cancelMissing() {
+        bag.cancel("missing");
+    }
+
+    @Benchmark
+    public void concurrentAddDisposable() {
+        concurrentBag.addDisposable(nextName(), Disposables.empty());
+    }
+
+    @Benchmark
+    public void concurrentAddAndCancel() {
+        concurrentBag.addDisposable("transient", Disposables.empty());
+        concurrentBag.cancel("transient");
+    }
+
+    /**
+     * Same as {@link #concurrentAddAndCancel()}, but through a precomputed slot
+     */
+    @Benchmark
+    public void concurrentSlotAddAndCancel() {
+        concurrentBag.addDisposable(slot, Disposables.empty());
+        concurrentBag.cancel(slot);
+    }
+
+    /**
+     * Fills a bag of given size from scratch and disposes everything
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Disposable fillAndDisposeAll() {
+        DisposeBag fresh = new DisposeBag();
+        Disposable last = null;
+        for (String name : names) {
+            last = Disposables.empty();
+            fresh.addDisposable(name, last);
+        }
+        fresh.disposeAll();
+        return last;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Disposable concurrentFillAndDisposeAll() {
+        ConcurrentDisposeBag fresh = new ConcurrentDisposeBag();
+        Disposable last = null;
+        for (String name : names) {
+            last = Disposables.empty();
+            fresh.addDisposable(name, last);
+        }
+        fresh.disposeAll();
+        return last;
+    }
+}
@@ -0,0 +1,101 @@
+package agency.v3.components.model.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.disposables.Disposable;
+
+/**
+ * {@link Variable#setValue(Object)} and {@link Variable#observe(Consumer1)} costs, alone and under contention
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Group)
+public class VariableBenchmark {
+
+    /**
+     * Number of observers attached to the variable
+     */
+    @Param({"1", "8"})
+    int observers;
+
+    private Variable<Integer> variable;
+    private Integer[] values;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole bh) {
+        variable = Variable.empty();
+        for (int i = 0; i < observers; i++) {
+            variable.observe(bh::consume);
+        }
+        //boxed in advance, so that benchmark does not measure Integer allocation
+        values = new Integer[1024];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+
+        int next() {
+            return index++ & 1023;
+        }
+    }
+
+    @Benchmark
+    @Group("uncontended")
+    @GroupThreads(1)
+    public void setValue(Cursor cursor) {
+        variable.setValue(values[cursor.next()]);
+    }
+
+    @Benchmark
+    @Group("uncontended_repeated")
+    @GroupThreads(1)
+    public void setSameValue() {
+        //filtered by distinct check
+        variable.setValue(values[0]);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(4)
+    public void contendedSetValue(Cursor cursor) {
+        variable.setValue(values[cursor.next()]);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void contendedObserve(Blackhole bh) {
+        Disposable d = variable.observe(bh::consume);
+        d.dispose();
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public Integer contendedGetValue() {
+        return variable.getValue();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        variable = null;
+    }
+}
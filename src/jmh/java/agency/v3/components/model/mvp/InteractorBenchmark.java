@@ -0,0 +1,121 @@
+package agency.v3.components.model.mvp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import agency.v3.components.model.executors.JobExecutor;
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.observers.DisposableObserver;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * {@link Interactor#applySchedulers(Observable, DisposableObserver)} round trips: caller to worker and back to notifier.
+ * <p>
+ * {@code trampoline} runs everything on the calling thread and measures the pipeline itself,
+ * {@code jobExecutor} hops to a {@link JobExecutor} and back to a single-threaded stand-in for the UI loop.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class InteractorBenchmark {
+
+    @Param({"trampoline", "jobExecutor"})
+    String executor;
+
+    /**
+     * Items emitted by every call
+     */
+    @Param({"1", "100"})
+    int items;
+
+    private JobExecutor jobExecutor;
+    private ExecutorService uiLoop;
+    private BenchInteractor interactor;
+    private Observable<Integer> source;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Scheduler worker;
+        Scheduler notifier;
+        if ("trampoline".equals(executor)) {
+            worker = Schedulers.trampoline();
+            notifier = Schedulers.trampoline();
+        } else {
+            jobExecutor = new JobExecutor(InteractorBenchmark::daemon);
+            worker = jobExecutor.getScheduler();
+            uiLoop = Executors.newSingleThreadExecutor(InteractorBenchmark::daemon);
+            notifier = Schedulers.from(uiLoop);
+        }
+        interactor = new BenchInteractor(worker, notifier);
+        source = Observable.range(0, items);
+    }
+
+    private static Thread daemon(Runnable r) {
+        Thread thread = new Thread(r);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (jobExecutor != null) {
+            jobExecutor.destroy();
+        }
+        if (uiLoop != null) {
+            uiLoop.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public int roundTrip() throws InterruptedException {
+        LatchObserver observer = interactor.call(source, new LatchObserver());
+        observer.done.await();
+        return observer.received;
+    }
+
+    static final class BenchInteractor extends Interactor {
+
+        BenchInteractor(Scheduler worker, Scheduler notifier) {
+            super(worker, notifier);
+        }
+
+        LatchObserver call(Observable<Integer> source, LatchObserver observer) {
+            applySchedulers(source, observer);
+            return observer;
+        }
+    }
+
+    static final class LatchObserver extends DisposableObserver<Integer> {
+        final CountDownLatch done = new CountDownLatch(1);
+        int received;
+
+        @Override
+        public void onNext(Integer value) {
+            received += value;
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package agency.v3.components.model.mvp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import agency.v3.components.model.core.CompositeDisposableBuilder;
+import agency.v3.components.model.core.Variable;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * {@link Presenter#attach(IView)} and {@link Presenter#destroy()} cycles
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PresenterBenchmark {
+
+    /**
+     * Number of view properties bound on each attach
+     */
+    @Param({"1", "10"})
+    int bindings;
+
+    private final View view = new View();
+    private BenchPresenter retained;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        retained = new BenchPresenter(new BenchState(bindings));
+    }
+
+    /**
+     * Re-attach of a view to already initialized presenter, e.g. on rotation
+     */
+    @Benchmark
+    public Disposable reattach() {
+        Disposable binding = retained.attach(view);
+        binding.dispose();
+        return binding;
+    }
+
+    /**
+     * Full presenter lifecycle: construction, init, attach, detach, destroy
+     */
+    @Benchmark
+    public BenchPresenter attachDestroy() {
+        BenchPresenter presenter = new BenchPresenter(new BenchState(bindings));
+        presenter.attach(view).dispose();
+        presenter.destroy();
+        return presenter;
+    }
+
+    static final class View implements IView {
+        int renders;
+
+        void render(String value) {
+            renders += value.length();
+        }
+    }
+
+    static final class BenchState {
+        final Variable<String>[] properties;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        BenchState(int size) {
+            properties = new Variable[size];
+            for (int i = 0; i < size; i++) {
+                properties[i] = Variable.value("property");
+            }
+        }
+    }
+
+    static final class BenchPresenter extends Presenter<View, BenchState> {
+
+        BenchPresenter(BenchState state) {
+            super(state);
+        }
+
+        @Override
+        protected void onInit() {
+            autoDestroy("init", emptyBinding());
+        }
+
+        @Override
+        protected Disposable onAttach(View view) {
+            CompositeDisposableBuilder builder = bind();
+            for (Variable<String> property : state.properties) {
+                builder.add(property.observe(view::render));
+            }
+            return builder.get();
+        }
+    }
+}
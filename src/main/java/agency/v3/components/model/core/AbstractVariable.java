@@ -0,0 +1,393 @@
+package agency.v3.components.model.core;
+
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import agency.v3.components.model.metrics.Metric;
+import agency.v3.components.model.metrics.Metrics;
+import agency.v3.components.model.metrics.MetricsRecorder;
+import io.reactivex.Scheduler;
+import io.reactivex.annotations.Nullable;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * State machine shared by {@link Variable} and it's primitive siblings: a copy-on-write array of
+ * subscriptions, priming of new observers, synchronous delivery, signal claiming and a conflating drain
+ * on delivery scheduler. Subclasses only store values: a held value is read as a primitive state and a
+ * reference, and only the subclass knows how to unpack them, so that primitive variables never box.
+ *
+ * @param <C> consumer type
+ */
+abstract class AbstractVariable<C> {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<AbstractVariable, Subscription[]> SUBSCRIPTIONS =
+            AtomicReferenceFieldUpdater.newUpdater(AbstractVariable.class, Subscription[].class, "subscriptions");
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<AbstractVariable> WIP =
+            AtomicIntegerFieldUpdater.newUpdater(AbstractVariable.class, "wip");
+
+    @SuppressWarnings("rawtypes")
+    private static final Subscription[] EMPTY = new Subscription[0];
+
+    @SuppressWarnings("rawtypes")
+    private volatile Subscription[] subscriptions = EMPTY;
+
+    final boolean shouldClearValueAfterConsumption;
+
+    /**
+     * Scheduler to deliver conflated values on, or null to deliver synchronously on writer's thread
+     */
+    @Nullable
+    private final Scheduler deliveryScheduler;
+
+    /**
+     * Number of drain requests since the pending drain has started, 0 if no drain is pending
+     */
+    private volatile int wip = 0;
+
+    @Nullable
+    private final Runnable drain;
+
+    AbstractVariable(boolean shouldClearValueAfterConsumption, @Nullable Scheduler deliveryScheduler) {
+        this.shouldClearValueAfterConsumption = shouldClearValueAfterConsumption;
+        this.deliveryScheduler = deliveryScheduler;
+        this.drain = deliveryScheduler == null ? null : this::drain;
+    }
+
+    /**
+     * Returned by {@link #reference(long)} when state has changed since it's been read
+     */
+    static final Object RETRY = new Object();
+
+    /*last value delivered by drain, accessed from the drain only*/
+    private long lastDeliveredState;
+    @Nullable
+    private Object lastDeliveredReference;
+    private boolean hasDelivered = false;
+
+    /**
+     * @return current state: a packed primitive value, or 0 if value is held by reference only
+     */
+    abstract long state();
+
+    /**
+     * @return reference held along with given state, null if there's none, or {@link #RETRY}
+     * if state has changed since it's been read by {@link #state()}
+     */
+    @Nullable
+    abstract Object reference(long state);
+
+    /**
+     * @return whether given state and reference hold a value
+     */
+    abstract boolean isPresent(long state, @Nullable Object reference);
+
+    /**
+     * Drops held value if it's still the given one
+     * @return whether value was dropped by this call
+     */
+    abstract boolean clear(long state, @Nullable Object reference);
+
+    /**
+     * Unpacks a held value and passes it to consumer
+     */
+    abstract void call(C consumer, long state, @Nullable Object reference);
+
+    /**
+     * Counts a value set, and whether it was filtered as equal to current one
+     */
+    static void recordSet(boolean isDistinct) {
+        MetricsRecorder metrics = Metrics.recorder();
+        if (metrics.isEnabled()) {
+            metrics.counter(Metric.VARIABLE_SET, 1);
+            if (!isDistinct) {
+                metrics.counter(Metric.VARIABLE_FILTERED, 1);
+            }
+        }
+    }
+
+    /**
+     * @return whether values are delivered synchronously on writer's thread
+     */
+    final boolean isSynchronous() {
+        return deliveryScheduler == null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Subscription<C>[] subscriptions() {
+        return subscriptions;
+    }
+
+    /**
+     * Notifies observers about a distinct value that has just been stored: either synchronously,
+     * by the caller, or by scheduling a drain.
+     */
+    final void onSet(long state, @Nullable Object reference) {
+        if (!isSynchronous()) {
+            scheduleDrain();
+            return;
+        }
+        if (!isPresent(state, reference)) {
+            return;
+        }
+        Subscription<C>[] current = subscriptions();
+        for (Subscription<C> s : current) {
+            if (s.settle(reference, state)) {
+                deliver(s, state, reference);
+            }
+        }
+        if (current.length != 0 && shouldClearValueAfterConsumption) {
+            //only clear the value we've consumed, a newer one belongs to it's writer
+            clear(state, reference);
+        }
+    }
+
+    private void deliver(Subscription<C> subscription, long state, @Nullable Object reference) {
+        if (!subscription.isDisposed()) {
+            call(subscription.consumer, state, reference);
+        }
+    }
+
+    private void scheduleDrain() {
+        if (WIP.getAndIncrement(this) == 0) {
+            deliveryScheduler.scheduleDirect(drain);
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        for (;;) {
+            drainValue(subscriptions());
+            missed = WIP.addAndGet(this, -missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Delivers the newest value to observers that haven't seen it yet. Drains never run concurrently,
+     * so drain-only state needs no synchronization.
+     */
+    private void drainValue(Subscription<C>[] subscriptions) {
+        long state;
+        Object reference;
+        do {
+            state = state();
+            reference = reference(state);
+        } while (reference == RETRY);
+        if (!isPresent(state, reference)) {
+            //same as synchronous delivery: a value set after no value is distinct again
+            hasDelivered = false;
+            lastDeliveredReference = null;
+            return;
+        }
+        if (shouldClearValueAfterConsumption) {
+            if (subscriptions.length != 0 && clear(state, reference)) {
+                for (Subscription<C> s : subscriptions) {
+                    s.isPrimed = true;
+                    deliver(s, state, reference);
+                }
+            }
+            return;
+        }
+        boolean isChanged = !hasDelivered || lastDeliveredState != state || !Objects.equals(lastDeliveredReference, reference);
+        hasDelivered = true;
+        lastDeliveredState = state;
+        lastDeliveredReference = reference;
+        for (Subscription<C> s : subscriptions) {
+            if (isChanged || !s.isPrimed) {
+                s.isPrimed = true;
+                deliver(s, state, reference);
+            }
+        }
+    }
+
+    /**
+     * Delivers current value, if any, to a newly subscribed observer once {@link Subscription#prime(Object, long)}
+     * lets it. Signal should be claimed before it is delivered, so that only one observer consumes it.
+     */
+    private void deliverCurrent(Subscription<C> subscription) {
+        long state;
+        Object reference;
+        do {
+            state = state();
+            reference = reference(state);
+        } while (reference == RETRY);
+        if (isPresent(state, reference)) {
+            if (!subscription.prime(reference, state)) {
+                //a concurrent setValue has delivered to this observer already
+                return;
+            }
+            //signal is claimed by this observer only, unless a setValue of it relies on priming to deliver it
+            if (!shouldClearValueAfterConsumption || clear(state, reference) || subscription.abandonPriming()) {
+                deliver(subscription, state, reference);
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    final Disposable subscribe(C observer) {
+        Subscription<C> subscription = new Subscription<>(this, observer);
+        for (;;) {
+            Subscription<C>[] current = subscriptions;
+            for (Subscription<C> s : current) {
+                if (Objects.equals(s.consumer, observer)) {
+                    throw new IllegalStateException("Attempt to RE-SUBSCRIBE the same observer");
+                }
+            }
+            Subscription<C>[] next = new Subscription[current.length + 1];
+            System.arraycopy(current, 0, next, 0, current.length);
+            next[current.length] = subscription;
+            if (SUBSCRIPTIONS.compareAndSet(this, current, next)) {
+                break;
+            }
+        }
+
+        if (deliveryScheduler != null) {
+            //new observer is not primed yet, so the drain will hand it the current value
+            scheduleDrain();
+        } else {
+            deliverCurrent(subscription);
+        }
+        return subscription;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void remove(Subscription<C> subscription) {
+        for (;;) {
+            Subscription<C>[] current = subscriptions;
+            int index = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == subscription) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return;
+            }
+            Subscription<C>[] next;
+            if (current.length == 1) {
+                next = EMPTY;
+            } else {
+                next = new Subscription[current.length - 1];
+                System.arraycopy(current, 0, next, 0, index);
+                System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+            }
+            if (SUBSCRIPTIONS.compareAndSet(this, current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * A connection of one consumer to a variable.
+     * <p>
+     * A synchronous subscription is primed with current value by subscriber, while concurrent setValue may deliver to
+     * it too. Which of them delivers what is decided by CAS of it's phase, and consumer is only called after that:
+     * UNPRIMED moves to PRIMING when subscriber claims priming with the value it's read, or to SETTLED when setValue
+     * gets there first, and priming is dropped then. A setValue that finds PRIMING compares it's value with the primed
+     * one: an equal value is left to priming, see PRIMING_DELIVERS, a distinct one is delivered, so no value is
+     * delivered twice.
+     */
+    static final class Subscription<C> implements Disposable {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<Subscription> PHASE =
+                AtomicIntegerFieldUpdater.newUpdater(Subscription.class, "phase");
+
+        private static final int UNPRIMED = 0;
+        private static final int PRIMING = 1;
+        /**
+         * A setValue has skipped the value priming delivers
+         */
+        private static final int PRIMING_DELIVERS = 2;
+        private static final int SETTLED = 3;
+
+        final AbstractVariable<C> owner;
+        final C consumer;
+
+        private volatile boolean isDisposed = false;
+
+        /**
+         * Whether this observer has received a value from the drain, accessed from the drain only
+         */
+        boolean isPrimed = false;
+
+        private volatile int phase = UNPRIMED;
+
+        /*written by subscriber before PRIMING is set, read by setValue after it's seen*/
+        @Nullable
+        private Object primedValue = null;
+        private long primedState = 0;
+
+        Subscription(AbstractVariable<C> owner, C consumer) {
+            this.owner = owner;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void dispose() {
+            if (!isDisposed) {
+                isDisposed = true;
+                owner.remove(this);
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return isDisposed;
+        }
+
+        /**
+         * Claims priming with given value: either a reference, or a primitive state
+         *
+         * @return whether value should be delivered, false if a concurrent setValue has settled this subscription first
+         */
+        boolean prime(@Nullable Object value, long state) {
+            primedValue = value;
+            primedState = state;
+            return PHASE.compareAndSet(this, UNPRIMED, PRIMING);
+        }
+
+        /**
+         * Gives up priming, when subscriber couldn't claim it's signal after all
+         *
+         * @return whether value should be delivered anyway, as a setValue of it has left it to priming
+         */
+        boolean abandonPriming() {
+            if (PHASE.compareAndSet(this, PRIMING, UNPRIMED)) {
+                return false;
+            }
+            return phase == PRIMING_DELIVERS;
+        }
+
+        /**
+         * Called by synchronous setValue after value is stored, before it's delivered to this subscription
+         *
+         * @return whether value should be delivered, false if priming delivers it
+         */
+        boolean settle(@Nullable Object value, long state) {
+            for (;;) {
+                int current = phase;
+                if (current == SETTLED || current == PRIMING_DELIVERS) {
+                    return true;
+                }
+                if (current == UNPRIMED) {
+                    if (PHASE.compareAndSet(this, UNPRIMED, SETTLED)) {
+                        return true;
+                    }
+                    continue;
+                }
+                boolean isPrimedWith = primedState == state && Objects.equals(primedValue, value);
+                if (PHASE.compareAndSet(this, PRIMING, isPrimedWith ? PRIMING_DELIVERS : SETTLED)) {
+                    return !isPrimedWith;
+                }
+            }
+        }
+    }
+}
@@ -1,8 +1,113 @@
 package agency.v3.components.model.core;
 
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+
 /**
- *
+ * An {@link Observer} bound to a {@link LifecycleScope}: it disposes itself when the scope ends, so that
+ * a subscription never outlives e.g. view attachment, with no need to put it into a {@link DisposeBag} by name.
+ * Events are passed to downstream observer, e.g. the one built by {@link DisposableBuilder}.
+ * <p>
+ * A subscriber leaves it's scope when it's terminated or disposed. Subscribe it once only.
  */
-//TODO: implement UBER-like auto dispose subscriber
-class AutodisposableSubscriber {
+public final class AutodisposableSubscriber<T> implements Observer<T>, Disposable {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<AutodisposableSubscriber, Disposable> UPSTREAM =
+            AtomicReferenceFieldUpdater.newUpdater(AutodisposableSubscriber.class, Disposable.class, "upstream");
+
+    private static final Disposable DISPOSED = new Disposable() {
+        @Override
+        public void dispose() {
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return true;
+        }
+    };
+
+    private final LifecycleScope scope;
+    private final Observer<T> downstream;
+
+    private volatile Disposable upstream;
+
+    /*links of scope's list, guarded by scope*/
+    AutodisposableSubscriber<?> prev;
+    AutodisposableSubscriber<?> next;
+    boolean isLinked;
+
+    public AutodisposableSubscriber(LifecycleScope scope, Observer<T> downstream) {
+        this.scope = scope;
+        this.downstream = downstream;
+        if (!scope.link(this)) {
+            upstream = DISPOSED;
+        }
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+        if (!UPSTREAM.compareAndSet(this, null, d)) {
+            d.dispose();
+            if (upstream != DISPOSED) {
+                throw new IllegalStateException("AutodisposableSubscriber is subscribed already");
+            }
+        }
+        //downstream sees scope's disposal through this
+        downstream.onSubscribe(this);
+    }
+
+    @Override
+    public void onNext(T t) {
+        if (upstream != DISPOSED) {
+            downstream.onNext(t);
+        }
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        if (terminate()) {
+            downstream.onError(e);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (terminate()) {
+            downstream.onComplete();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        disposeUpstream();
+        scope.unlink(this);
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return upstream == DISPOSED;
+    }
+
+    /**
+     * Called by scope, after this is unlinked
+     */
+    void disposeUpstream() {
+        Disposable d = UPSTREAM.getAndSet(this, DISPOSED);
+        if (d != null && d != DISPOSED) {
+            d.dispose();
+        }
+    }
+
+    private boolean terminate() {
+        Disposable d = upstream;
+        if (d == DISPOSED) {
+            return false;
+        }
+        UPSTREAM.lazySet(this, DISPOSED);
+        scope.unlink(this);
+        return true;
+    }
 }
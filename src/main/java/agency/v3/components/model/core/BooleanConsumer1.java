@@ -0,0 +1,9 @@
+package agency.v3.components.model.core;
+
+/**
+ * 1-arg Consumer of boolean, without checked exception and boxing, a primitive sibling of {@link Consumer1}
+ */
+
+public interface BooleanConsumer1 {
+    void call(boolean value);
+}
@@ -0,0 +1,147 @@
+package agency.v3.components.model.core;
+
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import io.reactivex.Scheduler;
+import io.reactivex.annotations.Nullable;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * A boolean specialization of {@link Variable}: same semantics, but values are neither boxed on
+ * {@link #setValue(boolean)} nor on delivery. Presence of value and the value itself are packed into
+ * a single word, so that reads and writes stay lock-free.
+ */
+public class BooleanVariable extends AbstractVariable<BooleanConsumer1> {
+
+    private static final AtomicIntegerFieldUpdater<BooleanVariable> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(BooleanVariable.class, "state");
+
+    private static final int NO_VALUE = 0;
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+
+    private volatile int state;
+
+    private BooleanVariable(int state, boolean shouldClearValueAfterConsumption, @Nullable Scheduler deliveryScheduler) {
+        super(shouldClearValueAfterConsumption, deliveryScheduler);
+        this.state = state;
+    }
+
+    private static int pack(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    /**
+     * @return whether this {@link BooleanVariable} holds a value
+     */
+    public boolean hasValue() {
+        return state != NO_VALUE;
+    }
+
+    /**
+     * Get value of this {@link BooleanVariable}
+     * @return value of variable or false, if no value specified
+     * */
+    public boolean getValue() {
+        return state == TRUE;
+    }
+
+    /**
+     * Set value of this {@link BooleanVariable} and notify registered consumers
+     * @param value a new value for this variable
+     * */
+    public void setValue(boolean value) {
+        int next = pack(value);
+        for (;;) {
+            int current = state;
+            if (current == next) {
+                recordSet(false);
+                return;
+            }
+            if (STATE.compareAndSet(this, current, next)) {
+                break;
+            }
+        }
+        recordSet(true);
+        onSet(next, null);
+    }
+
+    @Override
+    long state() {
+        return state;
+    }
+
+    @Override
+    @Nullable
+    Object reference(long state) {
+        return null;
+    }
+
+    @Override
+    boolean isPresent(long state, @Nullable Object reference) {
+        return state != NO_VALUE;
+    }
+
+    @Override
+    boolean clear(long state, @Nullable Object reference) {
+        return STATE.compareAndSet(this, (int) state, NO_VALUE);
+    }
+
+    @Override
+    void call(BooleanConsumer1 consumer, long state, @Nullable Object reference) {
+        consumer.call(state == TRUE);
+    }
+
+    /**
+     * Connect observer to that variable. Observer will be notified of only distinct value changes
+     * @return Disposable that can be disposed thus ending the subscription of observer to this {@link BooleanVariable}
+     * @throws IllegalStateException if you try to resubscribe already subscribed observer
+     */
+    public Disposable observe(BooleanConsumer1 observer) {
+        return subscribe(observer);
+    }
+
+
+    /**
+     * Constructs an empty BooleanVariable that can keep some value
+     */
+    public static BooleanVariable empty() {
+        return new BooleanVariable(NO_VALUE, /*keep value*/false, null);
+    }
+
+    /**
+     * Constructs an empty BooleanVariable that can keep some value and conflates delivery on given scheduler
+     */
+    public static BooleanVariable empty(Scheduler deliveryScheduler) {
+        return new BooleanVariable(NO_VALUE, /*keep value*/false, deliveryScheduler);
+    }
+
+    /**
+     * Constructs a BooleanVariable that keeps value that's been set into it.
+     */
+    public static BooleanVariable value(boolean value) {
+        return new BooleanVariable(pack(value), /*keep value*/false, null);
+    }
+
+    /**
+     * Constructs a BooleanVariable that keeps value that's been set into it and conflates delivery on given scheduler
+     */
+    public static BooleanVariable value(boolean value, Scheduler deliveryScheduler) {
+        return new BooleanVariable(pack(value), /*keep value*/false, deliveryScheduler);
+    }
+
+    /**
+     * Constructs a BooleanVariable that keeps value only until it is consumed; after it is consumed, BooleanVariable does not hold value
+     */
+    public static BooleanVariable signal() {
+        return new BooleanVariable(NO_VALUE, /*clear value after it's been consumed */true, null);
+    }
+
+    /**
+     * Constructs a BooleanVariable that keeps value only until it is consumed, and conflates delivery on given scheduler
+     */
+    public static BooleanVariable signal(Scheduler deliveryScheduler) {
+        return new BooleanVariable(NO_VALUE, /*clear value after it's been consumed */true, deliveryScheduler);
+    }
+}
@@ -0,0 +1,229 @@
+package agency.v3.components.model.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import agency.v3.components.model.metrics.Metric;
+import agency.v3.components.model.metrics.Metrics;
+import agency.v3.components.model.metrics.MetricsRecorder;
+import io.reactivex.annotations.Nullable;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * A thread safe counterpart of {@link DisposeBag}: remembers Subscriptions and Destroyables and
+ * disposes them by key or all at once, from any thread.
+ * <p>
+ * {@link Disposable}s and {@link Destroyable}s share one table, so each operation looks a key up once.
+ * Keys may be names, enum constants, or {@link Slot}s obtained from {@link #slot()}: a slot is a
+ * precomputed handle that skips hashing altogether. User's {@code dispose()} and {@code destroy()} are
+ * never called while holding a lock.
+ */
+public class ConcurrentDisposeBag {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<ConcurrentDisposeBag, Slot[]> SLOTS =
+            AtomicReferenceFieldUpdater.newUpdater(ConcurrentDisposeBag.class, Slot[].class, "slots");
+
+    private static final Slot[] NO_SLOTS = new Slot[0];
+
+    private final ConcurrentHashMap<Object, Object> keyed;
+
+    private volatile Slot[] slots = NO_SLOTS;
+
+    public ConcurrentDisposeBag() {
+        this.keyed = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates a handle for a hot operation, that could be added and cancelled without key lookups.
+     * Slots are cheap to use but not to create, so create them once, e.g. in a field initializer.
+     */
+    public Slot slot() {
+        Slot slot = new Slot(this);
+        for (;;) {
+            Slot[] current = slots;
+            Slot[] next = new Slot[current.length + 1];
+            System.arraycopy(current, 0, next, 0, current.length);
+            next[current.length] = slot;
+            if (SLOTS.compareAndSet(this, current, next)) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * This method allows to add named operation handle, so that it could be further
+     * cancelled by name.
+     * Adding subsequent subscription with the same name will cancel previous ongoing operation
+     */
+    public void addDisposable(String name, Disposable subscription) {
+        release(keyed.put(name, subscription));
+        recordSize();
+    }
+
+    /**
+     * This method allows to add named operation handle, so that it could be further
+     * cancelled by name.
+     * Adding subsequent subscription with the same name will cancel previous ongoing operation
+     */
+    public void addDisposable(String name, Destroyable disposable) {
+        release(keyed.put(name, entryOf(disposable)));
+        recordSize();
+    }
+
+    /**
+     * Same as {@link #addDisposable(String, Disposable)}, keyed by enum constant
+     */
+    public void addDisposable(Enum<?> key, Disposable subscription) {
+        release(keyed.put(key, subscription));
+        recordSize();
+    }
+
+    /**
+     * Same as {@link #addDisposable(String, Destroyable)}, keyed by enum constant
+     */
+    public void addDisposable(Enum<?> key, Destroyable disposable) {
+        release(keyed.put(key, entryOf(disposable)));
+        recordSize();
+    }
+
+    /**
+     * Puts subscription into a slot, cancelling previous ongoing operation in that slot
+     * @throws IllegalArgumentException if slot belongs to another bag
+     */
+    public void addDisposable(Slot slot, Disposable subscription) {
+        release(own(slot).getAndSet(subscription));
+    }
+
+    /**
+     * Puts destroyable into a slot, cancelling previous ongoing operation in that slot
+     * @throws IllegalArgumentException if slot belongs to another bag
+     */
+    public void addDisposable(Slot slot, Destroyable disposable) {
+        release(own(slot).getAndSet(entryOf(disposable)));
+    }
+
+    /**
+     * Disposes previously added disposable by name with which it was added.
+     */
+    public void cancel(String name) {
+        release(keyed.remove(name));
+    }
+
+    /**
+     * Disposes previously added disposable by enum constant with which it was added.
+     */
+    public void cancel(Enum<?> key) {
+        release(keyed.remove(key));
+    }
+
+    /**
+     * Disposes whatever is in the slot.
+     * @throws IllegalArgumentException if slot belongs to another bag
+     */
+    public void cancel(Slot slot) {
+        release(own(slot).getAndSet(null));
+    }
+
+    /**
+     * Disposes all disposables contained in this container. Entries are taken out one by one in a single
+     * pass, so that entries added concurrently either get disposed or stay in the bag.
+     */
+    public void disposeAll() {
+        for (Slot slot : slots) {
+            release(slot.getAndSet(null));
+        }
+        for (Map.Entry<Object, Object> e : keyed.entrySet()) {
+            Object entry = e.getValue();
+            if (keyed.remove(e.getKey(), entry)) {
+                release(entry);
+            }
+        }
+    }
+
+    /**
+     * @return number of entries currently in this bag
+     */
+    public int size() {
+        int size = keyed.size();
+        for (Slot slot : slots) {
+            if (slot.entry != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Slots are not counted here, as that takes a scan
+     */
+    private void recordSize() {
+        MetricsRecorder metrics = Metrics.recorder();
+        if (metrics.isEnabled()) {
+            metrics.record(Metric.DISPOSE_BAG_SIZE, keyed.size());
+        }
+    }
+
+    private Slot own(Slot slot) {
+        if (slot.bag != this) {
+            throw new IllegalArgumentException("Slot belongs to another ConcurrentDisposeBag");
+        }
+        return slot;
+    }
+
+    /**
+     * Entry is either a {@link Disposable} or a {@link Destroyable}; something that is both, but is
+     * added as {@link Destroyable}, is wrapped so that it's destroyed rather than disposed.
+     */
+    private static Object entryOf(Destroyable destroyable) {
+        if (destroyable instanceof Disposable) {
+            return new DestroyableEntry(destroyable);
+        }
+        return destroyable;
+    }
+
+    private static void release(@Nullable Object entry) {
+        if (entry instanceof Disposable) {
+            Disposable d = (Disposable) entry;
+            if (!d.isDisposed()) {
+                d.dispose();
+            }
+        } else if (entry instanceof Destroyable) {
+            ((Destroyable) entry).destroy();
+        } else if (entry instanceof DestroyableEntry) {
+            ((DestroyableEntry) entry).destroyable.destroy();
+        }
+    }
+
+    private static final class DestroyableEntry {
+        final Destroyable destroyable;
+
+        DestroyableEntry(Destroyable destroyable) {
+            this.destroyable = destroyable;
+        }
+    }
+
+    /**
+     * A precomputed handle of one operation in a {@link ConcurrentDisposeBag}, see {@link ConcurrentDisposeBag#slot()}
+     */
+    public static final class Slot {
+
+        private static final AtomicReferenceFieldUpdater<Slot, Object> ENTRY =
+                AtomicReferenceFieldUpdater.newUpdater(Slot.class, Object.class, "entry");
+
+        private final ConcurrentDisposeBag bag;
+
+        @Nullable
+        private volatile Object entry;
+
+        private Slot(ConcurrentDisposeBag bag) {
+            this.bag = bag;
+        }
+
+        @Nullable
+        private Object getAndSet(@Nullable Object next) {
+            return ENTRY.getAndSet(this, next);
+        }
+    }
+}
@@ -1,11 +1,26 @@
 package agency.v3.components.model.core;
 
+import io.reactivex.observers.DisposableCompletableObserver;
+import io.reactivex.observers.DisposableMaybeObserver;
 import io.reactivex.observers.DisposableObserver;
+import io.reactivex.observers.DisposableSingleObserver;
+import io.reactivex.subscribers.DisposableSubscriber;
 
 /**
- * A helper for building {@link DisposableObserver} in a fluent way
+ * A helper for building {@link DisposableObserver} in a fluent way, as well as it's counterparts
+ * for {@link io.reactivex.Flowable}, {@link io.reactivex.Single}, {@link io.reactivex.Maybe} and {@link io.reactivex.Completable}.
+ * <p>
+ * Built observers call their callbacks directly, callbacks that are not provided are replaced by no-ops.
  */
 public class DisposableBuilder<T> {
+    private static final int DEF_BATCH_SIZE = 128;
+
+    private static final Consumer0 NOTHING = () -> {
+    };
+    @SuppressWarnings("rawtypes")
+    private static final Consumer1 IGNORE = value -> {
+    };
+
     private Consumer0 whenStart;
     private Consumer0 whenDone;
     private Consumer1<T> whenNext;
@@ -51,60 +66,264 @@ public class DisposableBuilder<T> {
         return this;
     }
 
-    private void onCompleted() {
-        if (whenDone != null) {
-            whenDone.call();
-        }
+    /**
+     * Builds a {@link DisposableObserver}.
+     * @throws IllegalArgumentException if no callbacks provided AND allowQuietDisposable param is false
+     * */
+    public DisposableObserver<T> build() {
+        checkCallbacks();
+        return new CallbackObserver<>(start(), next(), error(), done());
     }
 
-    private void onError(Throwable e) {
-        if (whenError != null) {
-            whenError.call(e);
-        }
+    /**
+     * Builds a {@link DisposableSubscriber} that requests {@value #DEF_BATCH_SIZE} items upfront, and requests more
+     * once 3/4 of them are consumed, see {@link #buildSubscriber(int, int)}
+     * @throws IllegalArgumentException if no callbacks provided AND allowQuietDisposable param is false
+     * */
+    public DisposableSubscriber<T> buildSubscriber() {
+        return buildSubscriber(DEF_BATCH_SIZE, DEF_BATCH_SIZE - (DEF_BATCH_SIZE >> 2));
     }
 
-    private void onNext(T t) {
-        if (whenNext != null) {
-            whenNext.call(t);
+    /**
+     * Builds a {@link DisposableSubscriber} that requests items in batches instead of one by one or unbounded.
+     *
+     * @param batchSize          number of items requested upfront
+     * @param replenishThreshold number of consumed items after which as many are requested again
+     * @throws IllegalArgumentException if no callbacks provided AND allowQuietDisposable param is false, or if threshold is not within batch size
+     * */
+    public DisposableSubscriber<T> buildSubscriber(int batchSize, int replenishThreshold) {
+        checkCallbacks();
+        if (batchSize <= 0 || replenishThreshold <= 0 || replenishThreshold > batchSize) {
+            throw new IllegalArgumentException("Should provide positive batch size, and replenish threshold within it");
         }
+        return new CallbackSubscriber<>(start(), next(), error(), done(), batchSize, replenishThreshold);
     }
 
-    private void onStart() {
-        if (whenStart != null) {
-            whenStart.call();
-        }
+    /**
+     * Builds a {@link DisposableSingleObserver}: success invokes {@link #whenNext(Consumer1)} and then {@link #whenDone(Consumer0)} callback
+     * @throws IllegalArgumentException if no callbacks provided AND allowQuietDisposable param is false
+     * */
+    public DisposableSingleObserver<T> buildSingleObserver() {
+        checkCallbacks();
+        return new CallbackSingleObserver<>(start(), next(), error(), done());
     }
 
     /**
-     * Builds a {@link DisposableObserver}.
+     * Builds a {@link DisposableMaybeObserver}: success invokes {@link #whenNext(Consumer1)} and then {@link #whenDone(Consumer0)} callback,
+     * empty completion invokes {@link #whenDone(Consumer0)} only
      * @throws IllegalArgumentException if no callbacks provided AND allowQuietDisposable param is false
      * */
-    public DisposableObserver<T> build() {
+    public DisposableMaybeObserver<T> buildMaybeObserver() {
+        checkCallbacks();
+        return new CallbackMaybeObserver<>(start(), next(), error(), done());
+    }
+
+    /**
+     * Builds a {@link DisposableCompletableObserver}, {@link #whenNext(Consumer1)} callback is never invoked
+     * @throws IllegalArgumentException if no callbacks provided AND allowQuietDisposable param is false
+     * */
+    public DisposableCompletableObserver buildCompletableObserver() {
+        checkCallbacks();
+        return new CallbackCompletableObserver(start(), error(), done());
+    }
+
+    private void checkCallbacks() {
         if (!allowQuietDisposable && whenStart == null && whenDone == null && whenError == null && whenNext == null) {
             throw new IllegalArgumentException("Disposable does not define any callback, and allowQuietDisposable param is FALSE");
         }
-        return new DisposableObserver<T>() {
+    }
 
-            @Override
-            public void onComplete() {
-                DisposableBuilder.this.onCompleted();
-            }
+    private Consumer0 start() {
+        return whenStart != null ? whenStart : NOTHING;
+    }
 
-            @Override
-            public void onError(Throwable e) {
-                DisposableBuilder.this.onError(e);
-            }
+    private Consumer0 done() {
+        return whenDone != null ? whenDone : NOTHING;
+    }
 
-            @Override
-            public void onNext(T t) {
-                DisposableBuilder.this.onNext(t);
-            }
+    @SuppressWarnings("unchecked")
+    private Consumer1<T> next() {
+        return whenNext != null ? whenNext : (Consumer1<T>) IGNORE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer1<Throwable> error() {
+        return whenError != null ? whenError : (Consumer1<Throwable>) IGNORE;
+    }
+
+    private static final class CallbackObserver<T> extends DisposableObserver<T> {
+        private final Consumer0 whenStart;
+        private final Consumer1<T> whenNext;
+        private final Consumer1<Throwable> whenError;
+        private final Consumer0 whenDone;
+
+        CallbackObserver(Consumer0 whenStart, Consumer1<T> whenNext, Consumer1<Throwable> whenError, Consumer0 whenDone) {
+            this.whenStart = whenStart;
+            this.whenNext = whenNext;
+            this.whenError = whenError;
+            this.whenDone = whenDone;
+        }
+
+        @Override
+        protected void onStart() {
+            whenStart.call();
+        }
+
+        @Override
+        public void onNext(T t) {
+            whenNext.call(t);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            whenError.call(e);
+        }
+
+        @Override
+        public void onComplete() {
+            whenDone.call();
+        }
+    }
+
+    private static final class CallbackSubscriber<T> extends DisposableSubscriber<T> {
+        private final Consumer0 whenStart;
+        private final Consumer1<T> whenNext;
+        private final Consumer1<Throwable> whenError;
+        private final Consumer0 whenDone;
+        private final int batchSize;
+        private final int replenishThreshold;
+
+        /**
+         * Items consumed since last request, accessed serially by onNext
+         */
+        private int consumed = 0;
 
-            @Override
-            public void onStart() {
-                DisposableBuilder.this.onStart();
+        CallbackSubscriber(Consumer0 whenStart, Consumer1<T> whenNext, Consumer1<Throwable> whenError, Consumer0 whenDone,
+                           int batchSize, int replenishThreshold) {
+            this.whenStart = whenStart;
+            this.whenNext = whenNext;
+            this.whenError = whenError;
+            this.whenDone = whenDone;
+            this.batchSize = batchSize;
+            this.replenishThreshold = replenishThreshold;
+        }
+
+        @Override
+        protected void onStart() {
+            whenStart.call();
+            request(batchSize);
+        }
+
+        @Override
+        public void onNext(T t) {
+            whenNext.call(t);
+            if (++consumed == replenishThreshold) {
+                consumed = 0;
+                request(replenishThreshold);
             }
-        };
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            whenError.call(e);
+        }
+
+        @Override
+        public void onComplete() {
+            whenDone.call();
+        }
+    }
+
+    private static final class CallbackSingleObserver<T> extends DisposableSingleObserver<T> {
+        private final Consumer0 whenStart;
+        private final Consumer1<T> whenNext;
+        private final Consumer1<Throwable> whenError;
+        private final Consumer0 whenDone;
+
+        CallbackSingleObserver(Consumer0 whenStart, Consumer1<T> whenNext, Consumer1<Throwable> whenError, Consumer0 whenDone) {
+            this.whenStart = whenStart;
+            this.whenNext = whenNext;
+            this.whenError = whenError;
+            this.whenDone = whenDone;
+        }
+
+        @Override
+        protected void onStart() {
+            whenStart.call();
+        }
+
+        @Override
+        public void onSuccess(T t) {
+            whenNext.call(t);
+            whenDone.call();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            whenError.call(e);
+        }
+    }
+
+    private static final class CallbackMaybeObserver<T> extends DisposableMaybeObserver<T> {
+        private final Consumer0 whenStart;
+        private final Consumer1<T> whenNext;
+        private final Consumer1<Throwable> whenError;
+        private final Consumer0 whenDone;
+
+        CallbackMaybeObserver(Consumer0 whenStart, Consumer1<T> whenNext, Consumer1<Throwable> whenError, Consumer0 whenDone) {
+            this.whenStart = whenStart;
+            this.whenNext = whenNext;
+            this.whenError = whenError;
+            this.whenDone = whenDone;
+        }
+
+        @Override
+        protected void onStart() {
+            whenStart.call();
+        }
+
+        @Override
+        public void onSuccess(T t) {
+            whenNext.call(t);
+            whenDone.call();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            whenError.call(e);
+        }
+
+        @Override
+        public void onComplete() {
+            whenDone.call();
+        }
+    }
+
+    private static final class CallbackCompletableObserver extends DisposableCompletableObserver {
+        private final Consumer0 whenStart;
+        private final Consumer1<Throwable> whenError;
+        private final Consumer0 whenDone;
+
+        CallbackCompletableObserver(Consumer0 whenStart, Consumer1<Throwable> whenError, Consumer0 whenDone) {
+            this.whenStart = whenStart;
+            this.whenError = whenError;
+            this.whenDone = whenDone;
+        }
+
+        @Override
+        protected void onStart() {
+            whenStart.call();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            whenError.call(e);
+        }
+
+        @Override
+        public void onComplete() {
+            whenDone.call();
+        }
     }
 
 }
@@ -2,6 +2,9 @@ package agency.v3.components.model.core;
 
 import java.util.HashMap;
 
+import agency.v3.components.model.metrics.Metric;
+import agency.v3.components.model.metrics.Metrics;
+import agency.v3.components.model.metrics.MetricsRecorder;
 import io.reactivex.disposables.Disposable;
 
 /**
@@ -10,6 +13,7 @@ import io.reactivex.disposables.Disposable;
  * <br/>
  * <p>
  * <b>This class is not thread safe. Please address to it from one thread only.</b>
+ * Use {@link ConcurrentDisposeBag} when operations are added and cancelled from several threads.
  *
  * @author drew
  */
@@ -33,6 +37,7 @@ public class DisposeBag {
     public void addDisposable(String name, Disposable subscription) {
         cancel(name);
         this.namedDisposables.put(name, subscription);
+        recordSize();
 
     }
 
@@ -44,6 +49,14 @@ public class DisposeBag {
     public void addDisposable(String name, Destroyable disposable) {
         cancel(name);
         this.namedDestroyables.put(name, disposable);
+        recordSize();
+    }
+
+    private void recordSize() {
+        MetricsRecorder metrics = Metrics.recorder();
+        if (metrics.isEnabled()) {
+            metrics.record(Metric.DISPOSE_BAG_SIZE, namedDisposables.size() + namedDestroyables.size());
+        }
     }
 
 
@@ -0,0 +1,150 @@
+package agency.v3.components.model.core;
+
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import io.reactivex.Scheduler;
+import io.reactivex.annotations.Nullable;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * A double specialization of {@link Variable}: same semantics, but values are neither boxed on
+ * {@link #setValue(double)} nor on delivery. Values are compared by their bits, same as
+ * {@link Double#equals(Object)} does, and absence of value is encoded as a NaN bit pattern that
+ * {@link Double#doubleToLongBits(double)} never produces, so that reads and writes stay lock-free.
+ */
+public class DoubleVariable extends AbstractVariable<DoubleConsumer1> {
+
+    private static final AtomicLongFieldUpdater<DoubleVariable> STATE =
+            AtomicLongFieldUpdater.newUpdater(DoubleVariable.class, "state");
+
+    /**
+     * A non-canonical NaN: {@link Double#doubleToLongBits(double)} collapses all NaNs to 0x7ff8000000000000L
+     */
+    private static final long NO_VALUE = 0x7ff0000000000001L;
+
+    private volatile long state;
+
+    private DoubleVariable(long state, boolean shouldClearValueAfterConsumption, @Nullable Scheduler deliveryScheduler) {
+        super(shouldClearValueAfterConsumption, deliveryScheduler);
+        this.state = state;
+    }
+
+    private static long pack(double value) {
+        return Double.doubleToLongBits(value);
+    }
+
+    /**
+     * @return whether this {@link DoubleVariable} holds a value
+     */
+    public boolean hasValue() {
+        return state != NO_VALUE;
+    }
+
+    /**
+     * Get value of this {@link DoubleVariable}
+     * @return value of variable or NaN, if no value specified
+     * */
+    public double getValue() {
+        long current = state;
+        return current == NO_VALUE ? Double.NaN : Double.longBitsToDouble(current);
+    }
+
+    /**
+     * Set value of this {@link DoubleVariable} and notify registered consumers
+     * @param value a new value for this variable
+     * */
+    public void setValue(double value) {
+        long next = pack(value);
+        for (;;) {
+            long current = state;
+            if (current == next) {
+                recordSet(false);
+                return;
+            }
+            if (STATE.compareAndSet(this, current, next)) {
+                break;
+            }
+        }
+        recordSet(true);
+        onSet(next, null);
+    }
+
+    @Override
+    long state() {
+        return state;
+    }
+
+    @Override
+    @Nullable
+    Object reference(long state) {
+        return null;
+    }
+
+    @Override
+    boolean isPresent(long state, @Nullable Object reference) {
+        return state != NO_VALUE;
+    }
+
+    @Override
+    boolean clear(long state, @Nullable Object reference) {
+        return STATE.compareAndSet(this, state, NO_VALUE);
+    }
+
+    @Override
+    void call(DoubleConsumer1 consumer, long state, @Nullable Object reference) {
+        consumer.call(Double.longBitsToDouble(state));
+    }
+
+    /**
+     * Connect observer to that variable. Observer will be notified of only distinct value changes
+     * @return Disposable that can be disposed thus ending the subscription of observer to this {@link DoubleVariable}
+     * @throws IllegalStateException if you try to resubscribe already subscribed observer
+     */
+    public Disposable observe(DoubleConsumer1 observer) {
+        return subscribe(observer);
+    }
+
+
+    /**
+     * Constructs an empty DoubleVariable that can keep some value
+     */
+    public static DoubleVariable empty() {
+        return new DoubleVariable(NO_VALUE, /*keep value*/false, null);
+    }
+
+    /**
+     * Constructs an empty DoubleVariable that can keep some value and conflates delivery on given scheduler
+     */
+    public static DoubleVariable empty(Scheduler deliveryScheduler) {
+        return new DoubleVariable(NO_VALUE, /*keep value*/false, deliveryScheduler);
+    }
+
+    /**
+     * Constructs a DoubleVariable that keeps value that's been set into it.
+     */
+    public static DoubleVariable value(double value) {
+        return new DoubleVariable(pack(value), /*keep value*/false, null);
+    }
+
+    /**
+     * Constructs a DoubleVariable that keeps value that's been set into it and conflates delivery on given scheduler
+     */
+    public static DoubleVariable value(double value, Scheduler deliveryScheduler) {
+        return new DoubleVariable(pack(value), /*keep value*/false, deliveryScheduler);
+    }
+
+    /**
+     * Constructs a DoubleVariable that keeps value only until it is consumed; after it is consumed, DoubleVariable does not hold value
+     */
+    public static DoubleVariable signal() {
+        return new DoubleVariable(NO_VALUE, /*clear value after it's been consumed */true, null);
+    }
+
+    /**
+     * Constructs a DoubleVariable that keeps value only until it is consumed, and conflates delivery on given scheduler
+     */
+    public static DoubleVariable signal(Scheduler deliveryScheduler) {
+        return new DoubleVariable(NO_VALUE, /*clear value after it's been consumed */true, deliveryScheduler);
+    }
+}
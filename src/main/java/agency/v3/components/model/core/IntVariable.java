@@ -0,0 +1,147 @@
+package agency.v3.components.model.core;
+
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import io.reactivex.Scheduler;
+import io.reactivex.annotations.Nullable;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * An int specialization of {@link Variable}: same semantics, but values are neither boxed on
+ * {@link #setValue(int)} nor on delivery. Presence of value and the value itself are packed into
+ * a single word, so that reads and writes stay lock-free.
+ */
+public class IntVariable extends AbstractVariable<IntConsumer1> {
+
+    private static final AtomicLongFieldUpdater<IntVariable> STATE =
+            AtomicLongFieldUpdater.newUpdater(IntVariable.class, "state");
+
+    private static final long PRESENT = 1L << 32;
+    private static final long VALUE_MASK = 0xFFFFFFFFL;
+    private static final long NO_VALUE = 0L;
+
+    private volatile long state;
+
+    private IntVariable(long state, boolean shouldClearValueAfterConsumption, @Nullable Scheduler deliveryScheduler) {
+        super(shouldClearValueAfterConsumption, deliveryScheduler);
+        this.state = state;
+    }
+
+    private static long pack(int value) {
+        return PRESENT | (value & VALUE_MASK);
+    }
+
+    /**
+     * @return whether this {@link IntVariable} holds a value
+     */
+    public boolean hasValue() {
+        return state != NO_VALUE;
+    }
+
+    /**
+     * Get value of this {@link IntVariable}
+     * @return value of variable or 0, if no value specified
+     * */
+    public int getValue() {
+        return (int) state;
+    }
+
+    /**
+     * Set value of this {@link IntVariable} and notify registered consumers
+     * @param value a new value for this variable
+     * */
+    public void setValue(int value) {
+        long next = pack(value);
+        for (;;) {
+            long current = state;
+            if (current == next) {
+                recordSet(false);
+                return;
+            }
+            if (STATE.compareAndSet(this, current, next)) {
+                break;
+            }
+        }
+        recordSet(true);
+        onSet(next, null);
+    }
+
+    @Override
+    long state() {
+        return state;
+    }
+
+    @Override
+    @Nullable
+    Object reference(long state) {
+        return null;
+    }
+
+    @Override
+    boolean isPresent(long state, @Nullable Object reference) {
+        return state != NO_VALUE;
+    }
+
+    @Override
+    boolean clear(long state, @Nullable Object reference) {
+        return STATE.compareAndSet(this, state, NO_VALUE);
+    }
+
+    @Override
+    void call(IntConsumer1 consumer, long state, @Nullable Object reference) {
+        consumer.call((int) state);
+    }
+
+    /**
+     * Connect observer to that variable. Observer will be notified of only distinct value changes
+     * @return Disposable that can be disposed thus ending the subscription of observer to this {@link IntVariable}
+     * @throws IllegalStateException if you try to resubscribe already subscribed observer
+     */
+    public Disposable observe(IntConsumer1 observer) {
+        return subscribe(observer);
+    }
+
+
+    /**
+     * Constructs an empty IntVariable that can keep some value
+     */
+    public static IntVariable empty() {
+        return new IntVariable(NO_VALUE, /*keep value*/false, null);
+    }
+
+    /**
+     * Constructs an empty IntVariable that can keep some value and conflates delivery on given scheduler
+     */
+    public static IntVariable empty(Scheduler deliveryScheduler) {
+        return new IntVariable(NO_VALUE, /*keep value*/false, deliveryScheduler);
+    }
+
+    /**
+     * Constructs an IntVariable that keeps value that's been set into it.
+     */
+    public static IntVariable value(int value) {
+        return new IntVariable(pack(value), /*keep value*/false, null);
+    }
+
+    /**
+     * Constructs an IntVariable that keeps value that's been set into it and conflates delivery on given scheduler
+     */
+    public static IntVariable value(int value, Scheduler deliveryScheduler) {
+        return new IntVariable(pack(value), /*keep value*/false, deliveryScheduler);
+    }
+
+    /**
+     * Constructs an IntVariable that keeps value only until it is consumed; after it is consumed, IntVariable does not hold value
+     */
+    public static IntVariable signal() {
+        return new IntVariable(NO_VALUE, /*clear value after it's been consumed */true, null);
+    }
+
+    /**
+     * Constructs an IntVariable that keeps value only until it is consumed, and conflates delivery on given scheduler
+     */
+    public static IntVariable signal(Scheduler deliveryScheduler) {
+        return new IntVariable(NO_VALUE, /*clear value after it's been consumed */true, deliveryScheduler);
+    }
+}
@@ -0,0 +1,92 @@
+package agency.v3.components.model.core;
+
+import io.reactivex.disposables.Disposable;
+
+/**
+ * A lifecycle span, e.g. while view is attached, that {@link AutodisposableSubscriber}s are bound to.
+ * Ending the scope disposes all subscribers still bound to it, and any subscriber bound later is disposed right away.
+ * <p>
+ * Subscribers are kept in an intrusive linked list, so binding and unbinding is O(1) with no allocation.
+ * Thread safe: list is guarded by a short lock, and subscribers are disposed outside of it.
+ */
+public final class LifecycleScope implements Disposable {
+
+    /*guarded by this*/
+    private AutodisposableSubscriber<?> head;
+    private boolean isEnded = false;
+
+    /**
+     * Ends this scope, disposing all subscribers bound to it
+     */
+    public void end() {
+        AutodisposableSubscriber<?> node;
+        synchronized (this) {
+            if (isEnded) {
+                return;
+            }
+            isEnded = true;
+            node = head;
+            head = null;
+            for (AutodisposableSubscriber<?> n = node; n != null; n = n.next) {
+                n.isLinked = false;
+            }
+        }
+        //unlinked nodes are not touched by anyone else, so the chain is stable
+        while (node != null) {
+            AutodisposableSubscriber<?> next = node.next;
+            node.disposeUpstream();
+            node = next;
+        }
+    }
+
+    public synchronized boolean isEnded() {
+        return isEnded;
+    }
+
+    /**
+     * Same as {@link #end()}
+     */
+    @Override
+    public void dispose() {
+        end();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return isEnded();
+    }
+
+    /**
+     * @return false if scope has ended already
+     */
+    synchronized boolean link(AutodisposableSubscriber<?> node) {
+        if (isEnded) {
+            return false;
+        }
+        node.prev = null;
+        node.next = head;
+        if (head != null) {
+            head.prev = node;
+        }
+        head = node;
+        node.isLinked = true;
+        return true;
+    }
+
+    synchronized void unlink(AutodisposableSubscriber<?> node) {
+        if (!node.isLinked) {
+            return;
+        }
+        node.isLinked = false;
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            head = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+}
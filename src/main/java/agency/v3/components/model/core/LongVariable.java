@@ -0,0 +1,263 @@
+package agency.v3.components.model.core;
+
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import io.reactivex.Scheduler;
+import io.reactivex.annotations.Nullable;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * A long specialization of {@link Variable}: same semantics, but values are neither boxed on
+ * {@link #setValue(long)} nor on delivery.
+ * <p>
+ * Every long is a valid value, so it doesn't fit a single word along with it's presence. Like {@link DoubleVariable},
+ * state word holds value itself, and absence of value is encoded as a sentinel, so that reads and writes stay
+ * lock-free. Sentinel value itself, and the escape word that stands for it, are escaped: state holds the escape
+ * word then, and the actual value is boxed in a holder aside. Writers of these two values, and observers clearing
+ * such a signal, take turns on the holder, but nobody else ever waits for them.
+ */
+public class LongVariable extends AbstractVariable<LongConsumer1> {
+
+    private static final AtomicLongFieldUpdater<LongVariable> STATE =
+            AtomicLongFieldUpdater.newUpdater(LongVariable.class, "state");
+
+    private static final AtomicIntegerFieldUpdater<LongVariable> ESCAPING =
+            AtomicIntegerFieldUpdater.newUpdater(LongVariable.class, "escaping");
+
+    private static final long NO_VALUE = Long.MIN_VALUE + 1;
+    /**
+     * Stands for the value kept in {@link #escaped}
+     */
+    private static final long ESCAPED = Long.MIN_VALUE + 2;
+
+    private volatile long state;
+
+    /**
+     * Value of {@link #ESCAPED} state, replaced along with value, so that a reader may tell it's changed
+     */
+    private volatile Escaped escaped = new Escaped(ESCAPED);
+
+    /**
+     * 1 while holder is being written, or an escaped signal cleared
+     */
+    private volatile int escaping = 0;
+
+
+    private LongVariable(long value, boolean hasValue, boolean shouldClearValueAfterConsumption, @Nullable Scheduler deliveryScheduler) {
+        super(shouldClearValueAfterConsumption, deliveryScheduler);
+        if (!hasValue) {
+            this.state = NO_VALUE;
+        } else if (isEscaped(value)) {
+            this.escaped = new Escaped(value);
+            this.state = ESCAPED;
+        } else {
+            this.state = value;
+        }
+    }
+
+    private static boolean isEscaped(long value) {
+        return value == NO_VALUE || value == ESCAPED;
+    }
+
+    /**
+     * @return whether this {@link LongVariable} holds a value
+     */
+    public boolean hasValue() {
+        return state != NO_VALUE;
+    }
+
+    /**
+     * Get value of this {@link LongVariable}
+     * @return value of variable or 0, if no value specified
+     * */
+    public long getValue() {
+        for (;;) {
+            long current = state;
+            Object reference = reference(current);
+            if (reference != RETRY) {
+                return current == NO_VALUE ? 0L : unpack(current, reference);
+            }
+        }
+    }
+
+    /**
+     * Set value of this {@link LongVariable} and notify registered consumers
+     * @param value a new value for this variable
+     * */
+    public void setValue(long value) {
+        if (isEscaped(value)) {
+            setEscaped(value);
+            return;
+        }
+        for (;;) {
+            long current = state;
+            if (current == value) {
+                recordSet(false);
+                return;
+            }
+            if (STATE.compareAndSet(this, current, value)) {
+                break;
+            }
+        }
+        recordSet(true);
+        onSet(value, null);
+    }
+
+    private void setEscaped(long value) {
+        Escaped next = new Escaped(value);
+        lockEscaped();
+        try {
+            for (;;) {
+                long current = state;
+                if (current == ESCAPED) {
+                    if (escaped.value == value) {
+                        recordSet(false);
+                        return;
+                    }
+                    escaped = next;
+                    break;
+                }
+                //not read while state is not ESCAPED, and only written by this lock's owner
+                escaped = next;
+                if (STATE.compareAndSet(this, current, ESCAPED)) {
+                    break;
+                }
+            }
+        } finally {
+            unlockEscaped();
+        }
+        recordSet(true);
+        onSet(ESCAPED, next);
+    }
+
+    private void lockEscaped() {
+        while (!ESCAPING.compareAndSet(this, 0, 1)) {
+            Thread.yield();
+        }
+    }
+
+    private void unlockEscaped() {
+        escaping = 0;
+    }
+
+    private static long unpack(long state, @Nullable Object reference) {
+        return reference == null ? state : ((Escaped) reference).value;
+    }
+
+    @Override
+    long state() {
+        return state;
+    }
+
+    @Override
+    @Nullable
+    Object reference(long state) {
+        if (state != ESCAPED) {
+            return null;
+        }
+        //holder is only current if state is still ESCAPED after it's read, and it's not been replaced meanwhile
+        Escaped held = escaped;
+        if (this.state != ESCAPED || escaped != held) {
+            return RETRY;
+        }
+        return held;
+    }
+
+    @Override
+    boolean isPresent(long state, @Nullable Object reference) {
+        return state != NO_VALUE;
+    }
+
+    @Override
+    boolean clear(long state, @Nullable Object reference) {
+        if (reference == null) {
+            return STATE.compareAndSet(this, state, NO_VALUE);
+        }
+        lockEscaped();
+        try {
+            return escaped == reference && STATE.compareAndSet(this, ESCAPED, NO_VALUE);
+        } finally {
+            unlockEscaped();
+        }
+    }
+
+    @Override
+    void call(LongConsumer1 consumer, long state, @Nullable Object reference) {
+        consumer.call(unpack(state, reference));
+    }
+
+    /**
+     * Boxed value of {@link #ESCAPED} state. Equal by value, so that a rewrite of the same value is not distinct.
+     */
+    private static final class Escaped {
+        final long value;
+
+        Escaped(long value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Escaped && ((Escaped) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(value);
+        }
+    }
+
+    /**
+     * Connect observer to that variable. Observer will be notified of only distinct value changes
+     * @return Disposable that can be disposed thus ending the subscription of observer to this {@link LongVariable}
+     * @throws IllegalStateException if you try to resubscribe already subscribed observer
+     */
+    public Disposable observe(LongConsumer1 observer) {
+        return subscribe(observer);
+    }
+
+
+    /**
+     * Constructs an empty LongVariable that can keep some value
+     */
+    public static LongVariable empty() {
+        return new LongVariable(0L, /*no value*/false, /*keep value*/false, null);
+    }
+
+    /**
+     * Constructs an empty LongVariable that can keep some value and conflates delivery on given scheduler
+     */
+    public static LongVariable empty(Scheduler deliveryScheduler) {
+        return new LongVariable(0L, /*no value*/false, /*keep value*/false, deliveryScheduler);
+    }
+
+    /**
+     * Constructs a LongVariable that keeps value that's been set into it.
+     */
+    public static LongVariable value(long value) {
+        return new LongVariable(value, true, /*keep value*/false, null);
+    }
+
+    /**
+     * Constructs a LongVariable that keeps value that's been set into it and conflates delivery on given scheduler
+     */
+    public static LongVariable value(long value, Scheduler deliveryScheduler) {
+        return new LongVariable(value, true, /*keep value*/false, deliveryScheduler);
+    }
+
+    /**
+     * Constructs a LongVariable that keeps value only until it is consumed; after it is consumed, LongVariable does not hold value
+     */
+    public static LongVariable signal() {
+        return new LongVariable(0L, /*no value*/false, /*clear value after it's been consumed */true, null);
+    }
+
+    /**
+     * Constructs a LongVariable that keeps value only until it is consumed, and conflates delivery on given scheduler
+     */
+    public static LongVariable signal(Scheduler deliveryScheduler) {
+        return new LongVariable(0L, /*no value*/false, /*clear value after it's been consumed */true, deliveryScheduler);
+    }
+}
@@ -2,27 +2,42 @@ package agency.v3.components.model.core;
 
 
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
+import io.reactivex.Scheduler;
 import io.reactivex.annotations.Nullable;
 import io.reactivex.disposables.Disposable;
 
 /**
- * A variable that holds value and notifies it's consumer about value changes. Only one consumer is supported
+ * A variable that holds value and notifies it's consumers about value changes.
+ * <p>
+ * Reads and writes are lock-free, consumers are kept in a copy-on-write array, and consumers are
+ * never invoked while holding a lock. Consumers are called on the thread that set the value, so
+ * concurrent writers may deliver their values in any order; {@link #getValue()} always returns the
+ * latest written value.
+ * <p>
+ * A Variable constructed with a delivery {@link Scheduler} (e.g. {@code PostExecutionThread#getScheduler()})
+ * conflates instead: writes only store the latest value and schedule at most one pending drain,
+ * and every drain delivers the newest value on that scheduler, in order, skipping intermediate ones.
+ *
+ * @see IntVariable
+ * @see LongVariable
+ * @see DoubleVariable
+ * @see BooleanVariable
  */
-public class Variable<T> {
+public class Variable<T> extends AbstractVariable<Consumer1<T>> {
 
-    @Nullable
-    private volatile T value = null;
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Variable, Object> VALUE =
+            AtomicReferenceFieldUpdater.newUpdater(Variable.class, Object.class, "value");
 
     @Nullable
-    private Consumer1<T> consumer = null;
-
-    private final boolean shouldClearValueAfterConsumption;
+    private volatile Object value = null;
 
 
-    private Variable(T value, boolean shouldClearValueAfterConsumption) {
+    private Variable(T value, boolean shouldClearValueAfterConsumption, @Nullable Scheduler deliveryScheduler) {
+        super(shouldClearValueAfterConsumption, deliveryScheduler);
         this.value = value;
-        this.shouldClearValueAfterConsumption = shouldClearValueAfterConsumption;
     }
 
     /**
@@ -30,10 +45,9 @@ public class Variable<T> {
      * @return value of variable or null, if no value specified
      * */
     @Nullable
+    @SuppressWarnings("unchecked")
     public T getValue(){
-        synchronized (this) {
-            return value;
-        }
+        return (T) value;
     }
 
 
@@ -42,82 +56,63 @@ public class Variable<T> {
      * @param value a new value for this variable
      * */
     public void setValue(T value) {
-        synchronized (this) {
-            boolean isDistinct = setValueInternal(value);
-            if (isDistinct) {
-                maybeConsume();
-            }
+        boolean isDistinct = setValueInternal(value);
+        recordSet(isDistinct);
+        if (isDistinct) {
+            onSet(0, value);
         }
     }
 
-    private void maybeConsume() {
-        if (value != null) {
-            int consumeCount = 0;
-//            for (Consumer1<T> c : consumers) {
-//                c.call(value);
-//                consumeCount++;
-//            }
-            if (consumer != null) {
-                consumeCount++;
-                consumer.call(value);
+
+    /**
+     * @return whether distinct value was set
+     */
+    private boolean setValueInternal(T value) {
+        for (;;) {
+            Object current = this.value;
+            if (Objects.equals(current, value)) {
+                return false;
+            }
+            if (VALUE.compareAndSet(this, current, value)) {
+                return true;
             }
-            maybeClearValue(consumeCount != 0);
         }
+    }
 
+    @Override
+    long state() {
+        return 0;
     }
 
+    @Override
+    @Nullable
+    Object reference(long state) {
+        return value;
+    }
 
-    /**
-     * @return whether distinct value was set
-     */
-    private boolean setValueInternal(T value) {
-        boolean isDistinct = !Objects.equals(this.value, value);
-        this.value = value;
-        return isDistinct;
+    @Override
+    boolean isPresent(long state, @Nullable Object reference) {
+        return reference != null;
     }
 
-    private void maybeClearValue(boolean wasConsumed) {
-        if (wasConsumed && shouldClearValueAfterConsumption) {
-            this.value = null;
-        }
+    @Override
+    boolean clear(long state, @Nullable Object reference) {
+        return VALUE.compareAndSet(this, reference, null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void call(Consumer1<T> consumer, long state, @Nullable Object reference) {
+        consumer.call((T) reference);
     }
 
     /**
      * Connect observer to that variable. Observer will be notified of only distinct value changes
      * @return Disposable that can be disposed thus ending the subscription of observer to this {@link Variable}
-     * @throws IllegalStateException if you try to resubscribe already subscribed observer, or if this {@link Variable} is already subscribed to by some observer
+     * @throws IllegalStateException if you try to resubscribe already subscribed observer
      */
     public Disposable observe(Consumer1<T> observer) {
-        synchronized (this) {
-            if (consumer != null) {
-                if (Objects.equals(observer, consumer)) {
-                    throw new IllegalStateException("Attempt to RE-SUBSCRIBE the same observer");
-                } else {
-                    throw new IllegalStateException("Attempt to SUBSCRIBE observer while Variable already has observer");
-                }
-            } else {
-                this.consumer = observer;
-                maybeConsume();
-            }
-        }
-
-        return new Disposable() {
-            //TODO: atomic reference, compare and set?
-            private volatile boolean isDisposed = false;
-
-            @Override
-            public void dispose() {
-                synchronized (this) {
-                    consumer = null;
-                    isDisposed = true;
-                }
-            }
-
-            @Override
-            public boolean isDisposed() {
-                return isDisposed;
-            }
-        };
+        return subscribe(observer);
     }
 
 
@@ -125,20 +120,42 @@ public class Variable<T> {
      * Constructs an empty Variable that can keep some value
      */
     public static <T> Variable<T> empty() {
-        return new Variable<>(null, /*keep value*/false);
+        return new Variable<>(null, /*keep value*/false, null);
+    }
+
+    /**
+     * Constructs an empty Variable that can keep some value and conflates delivery on given scheduler
+     */
+    public static <T> Variable<T> empty(Scheduler deliveryScheduler) {
+        return new Variable<>(null, /*keep value*/false, deliveryScheduler);
     }
 
     /**
      * Constructs a Variable that keeps value that's been set into it.
      */
     public static <T> Variable<T> value(T value) {
-        return new Variable<>(value, /*keep value*/false);
+        return new Variable<>(value, /*keep value*/false, null);
+    }
+
+    /**
+     * Constructs a Variable that keeps value that's been set into it and conflates delivery on given scheduler
+     */
+    public static <T> Variable<T> value(T value, Scheduler deliveryScheduler) {
+        return new Variable<>(value, /*keep value*/false, deliveryScheduler);
     }
 
     /**
      * Constructs a Variable that keeps value only until it is consumed; after it is consumed, Variable does not hold value
      */
     public static <T> Variable<T> signal() {
-        return new Variable<>(null, /*clear value after it's been consumed */true);
+        return new Variable<>(null, /*clear value after it's been consumed */true, null);
+    }
+
+    /**
+     * Constructs a Variable that keeps value only until it is consumed, and conflates delivery on given scheduler.
+     * Signals set while a drain is pending are conflated too: only the newest one is consumed.
+     */
+    public static <T> Variable<T> signal(Scheduler deliveryScheduler) {
+        return new Variable<>(null, /*clear value after it's been consumed */true, deliveryScheduler);
     }
 }
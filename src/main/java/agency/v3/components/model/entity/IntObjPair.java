@@ -0,0 +1,39 @@
+package agency.v3.components.model.entity;
+
+import agency.v3.components.model.helpers.Hashing;
+
+/**
+ * A pair of an int, with no boxing, and an object. Hash is not cached, as the object may be mutable
+ * */
+public final class IntObjPair<S> {
+    public final int first;
+    public final S second;
+
+    public IntObjPair(int first, S second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof IntObjPair)) {
+            return false;
+        }
+        IntObjPair<?> p = (IntObjPair<?>) o;
+        return p.first == first && (p.second == second || (second != null && second.equals(p.second)));
+    }
+
+    @Override
+    public int hashCode() {
+        return Hashing.combine(first, second == null ? 0 : second.hashCode());
+    }
+
+    @Override
+    public String toString() {
+        return "IntObjPair{" + first + " " + String.valueOf(second) + "}";
+    }
+
+    public static <B> IntObjPair<B> create(int a, B b) {
+        return new IntObjPair<B>(a, b);
+    }
+}
@@ -0,0 +1,42 @@
+package agency.v3.components.model.entity;
+
+import agency.v3.components.model.helpers.Hashing;
+
+/**
+ * A pair of ints, with no boxing. Immutable, so it's hash is computed once
+ * */
+public final class IntPair {
+    public final int first;
+    public final int second;
+
+    private final int hash;
+
+    public IntPair(int first, int second) {
+        this.first = first;
+        this.second = second;
+        this.hash = Hashing.combine(first, second);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof IntPair)) {
+            return false;
+        }
+        IntPair p = (IntPair) o;
+        return p.first == first && p.second == second;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "IntPair{" + first + " " + second + "}";
+    }
+
+    public static IntPair create(int a, int b) {
+        return new IntPair(a, b);
+    }
+}
@@ -0,0 +1,42 @@
+package agency.v3.components.model.entity;
+
+import agency.v3.components.model.helpers.Hashing;
+
+/**
+ * A pair of longs, with no boxing. Immutable, so it's hash is computed once
+ * */
+public final class LongPair {
+    public final long first;
+    public final long second;
+
+    private final int hash;
+
+    public LongPair(long first, long second) {
+        this.first = first;
+        this.second = second;
+        this.hash = Hashing.combine(Long.hashCode(first), Long.hashCode(second));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof LongPair)) {
+            return false;
+        }
+        LongPair p = (LongPair) o;
+        return p.first == first && p.second == second;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "LongPair{" + first + " " + second + "}";
+    }
+
+    public static LongPair create(long a, long b) {
+        return new LongPair(a, b);
+    }
+}
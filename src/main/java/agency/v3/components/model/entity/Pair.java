@@ -1,5 +1,6 @@
 package agency.v3.components.model.entity;
 
+import agency.v3.components.model.helpers.Hashing;
 
 /**
  * A simple pair
@@ -41,13 +42,13 @@ public class Pair<F, S> {
     }
 
     /**
-     * Compute a hash code using the hash codes of the underlying objects
+     * Compute a hash code using the hash codes of the underlying objects. It's not cached, as they may be mutable
      *
      * @return a hashcode of the Pair
      */
     @Override
     public int hashCode() {
-        return (first == null ? 0 : first.hashCode()) ^ (second == null ? 0 : second.hashCode());
+        return Hashing.combine(first == null ? 0 : first.hashCode(), second == null ? 0 : second.hashCode());
     }
 
     @Override
@@ -0,0 +1,68 @@
+package agency.v3.components.model.executors;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link java.util.concurrent.ThreadPoolExecutor} that resizes it's core pool by how long jobs wait in the queue: it adds
+ * a thread while average wait is above target, and retires one when average wait drops well below it.
+ * Pool size stays within given bounds and is changed at most once per adjustment interval.
+ */
+class AdaptiveThreadPoolExecutor extends InstrumentedThreadPoolExecutor {
+
+    private static final long ADJUST_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * Weight of the newest sample in average wait is 1 / 2^EWMA_SHIFT
+     */
+    private static final int EWMA_SHIFT = 3;
+
+    private final int minPoolSize;
+    private final long targetWaitNanos;
+
+    /**
+     * Exponentially weighted average of queue wait. Updated racily: a lost sample doesn't matter here
+     */
+    private volatile long averageWaitNanos = 0;
+
+    private volatile long lastAdjustNanos = System.nanoTime();
+
+    AdaptiveThreadPoolExecutor(int minPoolSize,
+                               int maxPoolSize,
+                               long targetWait,
+                               TimeUnit targetWaitUnit,
+                               long keepAliveTime,
+                               TimeUnit keepAliveUnit,
+                               BlockingQueue<Runnable> workQueue,
+                               ThreadFactory threadFactory,
+                               RejectedExecutionHandler handler) {
+        super(minPoolSize, maxPoolSize, keepAliveTime, keepAliveUnit, workQueue, threadFactory, handler);
+        this.minPoolSize = minPoolSize;
+        this.targetWaitNanos = targetWaitUnit.toNanos(targetWait);
+    }
+
+    @Override
+    boolean isTimingRequired() {
+        return true;
+    }
+
+    @Override
+    void onQueueWait(long waitNanos, long now) {
+        long average = averageWaitNanos;
+        average += (waitNanos - average) >> EWMA_SHIFT;
+        averageWaitNanos = average;
+
+        if (now - lastAdjustNanos < ADJUST_INTERVAL_NANOS) {
+            return;
+        }
+        lastAdjustNanos = now;
+        int core = getCorePoolSize();
+        if (average > targetWaitNanos && core < getMaximumPoolSize()) {
+            setCorePoolSize(core + 1);
+        } else if (average < targetWaitNanos / 4 && core > minPoolSize) {
+            setCorePoolSize(core - 1);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package agency.v3.components.model.executors;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.Scheduler;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * {@link PostExecutionThread} that delivers on ticks of a {@link TickSource}, e.g. once per frame: deliveries are
+ * queued in a lock-free queue, and all of them are drained in a single pass per tick, so that a burst of results
+ * costs a single wakeup of the UI loop rather than one per result. A drain stops once it's time budget is spent
+ * and continues on next tick, so that a burst doesn't cause jank. Deliveries keep their order
+ */
+public class FrameBatchingPostExecutionThread implements PostExecutionThread {
+    private static final long DEF_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(8);
+
+    private final TickSource tickSource;
+    private final long budgetNanos;
+
+    private final MpscQueue<Runnable> deliveries = new MpscQueue<>();
+    /**
+     * Whether a drain is requested and hasn't finished yet
+     */
+    private final AtomicBoolean isTickRequested = new AtomicBoolean();
+    private final Runnable drain = this::drain;
+    private final Scheduler scheduler;
+
+    /**
+     * Drains for up to 8ms, half a frame at 60 fps
+     */
+    public FrameBatchingPostExecutionThread(TickSource tickSource) {
+        this(tickSource, DEF_BUDGET_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param budget for how long a drain may deliver, at least one delivery is made per drain anyway
+     */
+    public FrameBatchingPostExecutionThread(TickSource tickSource, long budget, TimeUnit unit) {
+        if (budget <= 0) {
+            throw new IllegalArgumentException("Budget should be positive, was " + budget);
+        }
+        this.tickSource = tickSource;
+        this.budgetNanos = unit.toNanos(budget);
+        this.scheduler = Schedulers.from(new Executor() {
+            @Override
+            public void execute(Runnable delivery) {
+                enqueue(delivery);
+            }
+        });
+    }
+
+    @Override
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    private void enqueue(Runnable delivery) {
+        deliveries.offer(delivery);
+        if (isTickRequested.compareAndSet(false, true)) {
+            tickSource.requestTick(drain);
+        }
+    }
+
+    private void drain() {
+        long deadline = System.nanoTime() + budgetNanos;
+        Runnable delivery;
+        while ((delivery = deliveries.poll()) != null) {
+            try {
+                delivery.run();
+            } catch (Throwable e) {
+                //a failed delivery shouldn't hold back the rest of them
+                RxJavaPlugins.onError(e);
+            }
+            if (System.nanoTime() - deadline >= 0 && !deliveries.isEmpty()) {
+                tickSource.requestTick(drain);
+                return;
+            }
+        }
+        isTickRequested.set(false);
+        //a delivery enqueued after the queue was seen empty, but before the flag was reset, requested no tick
+        if (!deliveries.isEmpty() && isTickRequested.compareAndSet(false, true)) {
+            tickSource.requestTick(drain);
+        }
+    }
+}
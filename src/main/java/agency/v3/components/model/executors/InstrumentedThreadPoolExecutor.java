@@ -0,0 +1,109 @@
+package agency.v3.components.model.executors;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import agency.v3.components.model.metrics.Metric;
+import agency.v3.components.model.metrics.Metrics;
+import agency.v3.components.model.metrics.MetricsRecorder;
+
+/**
+ * {@link ThreadPoolExecutor} that reports queue wait, execution time, queue depth and active threads
+ * to {@link Metrics}. Jobs are only wrapped and timed while metrics are enabled, or when a subclass needs timing
+ */
+class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private final AtomicInteger activeJobs = new AtomicInteger();
+
+    InstrumentedThreadPoolExecutor(int corePoolSize,
+                                   int maxPoolSize,
+                                   long keepAliveTime,
+                                   TimeUnit keepAliveUnit,
+                                   BlockingQueue<Runnable> workQueue,
+                                   ThreadFactory threadFactory,
+                                   RejectedExecutionHandler handler) {
+        super(corePoolSize, maxPoolSize, keepAliveTime, keepAliveUnit, workQueue, threadFactory, handler);
+    }
+
+    /**
+     * @return whether jobs should be timed even with metrics disabled
+     */
+    boolean isTimingRequired() {
+        return false;
+    }
+
+    /**
+     * Invoked as a timed job leaves the queue
+     */
+    void onQueueWait(long waitNanos, long now) {
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        //jobs re-submitted by rejection policies are already timed
+        if (command instanceof TimedJob || !(isTimingRequired() || Metrics.recorder().isEnabled())) {
+            super.execute(command);
+        } else {
+            super.execute(new TimedJob(command));
+        }
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        if (r instanceof TimedJob) {
+            TimedJob job = (TimedJob) r;
+            long now = System.nanoTime();
+            long waitNanos = now - job.enqueuedAtNanos;
+            job.startedAtNanos = now;
+            onQueueWait(waitNanos, now);
+            MetricsRecorder metrics = Metrics.recorder();
+            if (metrics.isEnabled()) {
+                job.isActive = true;
+                metrics.record(Metric.JOB_QUEUE_WAIT, waitNanos);
+                //own counter, as getActiveCount() takes pool's main lock
+                metrics.gauge(Metric.JOB_ACTIVE_THREADS, activeJobs.incrementAndGet());
+                metrics.gauge(Metric.JOB_QUEUE_DEPTH, getQueue().size());
+            }
+        }
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        super.afterExecute(r, t);
+        if (r instanceof TimedJob) {
+            TimedJob job = (TimedJob) r;
+            if (job.isActive) {
+                job.isActive = false;
+                MetricsRecorder metrics = Metrics.recorder();
+                metrics.record(Metric.JOB_EXECUTION, System.nanoTime() - job.startedAtNanos);
+                metrics.gauge(Metric.JOB_ACTIVE_THREADS, activeJobs.decrementAndGet());
+            }
+        }
+    }
+
+    /**
+     * A job that remembers when it has been queued
+     */
+    static final class TimedJob implements Runnable {
+        final Runnable command;
+        final long enqueuedAtNanos;
+        /*accessed by executing thread only*/
+        long startedAtNanos;
+        boolean isActive;
+
+        TimedJob(Runnable command) {
+            this.command = command;
+            this.enqueuedAtNanos = System.nanoTime();
+        }
+
+        @Override
+        public void run() {
+            command.run();
+        }
+    }
+}
@@ -1,49 +1,194 @@
 package agency.v3.components.model.executors;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import agency.v3.components.model.core.Destroyable;
 import io.reactivex.Scheduler;
 import io.reactivex.schedulers.Schedulers;
 
 
 /**
  * Decorated {@link ThreadPoolExecutor}
+ * <p>
+ * Use {@link #builder()} for a bounded executor that reports overload by it's {@link OverflowPolicy}
+ * instead of growing the heap, and optionally resizes it's pool by measured queue wait.
  */
-public class JobExecutor implements ExecutionThread {
+public class JobExecutor implements ExecutionThread, Destroyable {
     private static final int DEF_CORE_POOL_SIZE = 3;
     private static final int DEF_MAX_POOL_SIZE = 5;
     private static final int DEF_KEEP_ALIVE_TIME = 10;
     private static final TimeUnit DEF_KEEP_ALIVE_TIME_UNIT = TimeUnit.SECONDS;
+    private static final int DEF_QUEUE_CAPACITY = 128;
+
+    /**
+     * What to do with a job when both the pool and it's bounded queue are full
+     */
+    public enum OverflowPolicy {
+        /**
+         * Reject the job: it's stream fails with {@link java.util.concurrent.RejectedExecutionException}
+         * when subscribed through {@link RejectionAwareExecutor#subscribeOn(io.reactivex.Observable, Scheduler)},
+         * as {@link agency.v3.components.model.mvp.Interactor} does. Other jobs are dropped and reported to
+         * {@link io.reactivex.plugins.RxJavaPlugins#onError}
+         */
+        REJECT,
+        /**
+         * Run the job on the submitting thread, slowing submitters down
+         */
+        CALLER_RUNS;
+
+        RejectedExecutionHandler handler() {
+            switch (this) {
+                case CALLER_RUNS:
+                    return new ThreadPoolExecutor.CallerRunsPolicy();
+                case REJECT:
+                default:
+                    return new ThreadPoolExecutor.AbortPolicy();
+            }
+        }
+    }
 
     private final ThreadPoolExecutor threadPoolExecutor;
 
+    private final Scheduler scheduler;
+
     /**
      * Constructs {@link JobExecutor} using default params and provided thread factory
      * */
     public JobExecutor(ThreadFactory threadFactory) {
-        this.threadPoolExecutor = new ThreadPoolExecutor(
+        this(new InstrumentedThreadPoolExecutor(
                 DEF_CORE_POOL_SIZE,
                 DEF_MAX_POOL_SIZE,
                 DEF_KEEP_ALIVE_TIME,
                 DEF_KEEP_ALIVE_TIME_UNIT,
                 new LinkedBlockingQueue<>(),
-                threadFactory
-        );
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy()
+        ));
     }
 
     /**
-     * Constructs {@link JobExecutor} using provided thread pool executor
+     * Constructs {@link JobExecutor} using provided thread pool executor. Mind that it's jobs are not reported
+     * to {@link agency.v3.components.model.metrics.Metrics}, unlike jobs of executors constructed otherwise
      * */
     public JobExecutor(ThreadPoolExecutor poolExecutor) {
         this.threadPoolExecutor = poolExecutor;
+        this.scheduler = Schedulers.from(new RejectionAwareExecutor(poolExecutor));
+    }
+
+    public static Builder builder() {
+        return new Builder();
     }
 
     @Override
     public Scheduler getScheduler() {
-        return Schedulers.from(threadPoolExecutor);
+        return scheduler;
+    }
+
+    /**
+     * Shuts thread pool down: jobs already queued are executed, new ones are rejected, as by {@link OverflowPolicy#REJECT}
+     */
+    @Override
+    public void destroy() {
+        threadPoolExecutor.shutdown();
+    }
+
+
+    public static class Builder {
+        private ThreadFactory threadFactory;
+        private int queueCapacity = DEF_QUEUE_CAPACITY;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.REJECT;
+        private int minPoolSize = DEF_CORE_POOL_SIZE;
+        private int maxPoolSize = Math.max(DEF_MAX_POOL_SIZE, 2 * Runtime.getRuntime().availableProcessors());
+        private long targetQueueWaitMillis = 0;
+
+        public Builder() {
+
+        }
+
+        /**
+         * Factory of pool threads
+         * */
+        public Builder threadFactory(ThreadFactory threadFactory) {
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
+        /**
+         * Max number of jobs waiting for a thread; the rest are handled by overflow policy
+         * */
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * What to do with a job when both the pool and it's queue are full, {@link OverflowPolicy#REJECT} by default.
+         * Mind that {@link OverflowPolicy#CALLER_RUNS} may run blocking jobs on the UI thread
+         * */
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        /**
+         * Bounds of the pool size. By default pool keeps 3 threads and grows up to twice the number of CPUs, but no less than 5
+         * */
+        public Builder poolSize(int minPoolSize, int maxPoolSize) {
+            this.minPoolSize = minPoolSize;
+            this.maxPoolSize = maxPoolSize;
+            return this;
+        }
+
+        /**
+         * Resize the pool by measured queue wait: add threads while jobs wait in the queue for longer than
+         * target on average, and retire them once queue wait drops well below it. Disabled by default,
+         * then the pool grows past it's minimal size only when the queue is full
+         * */
+        public Builder adaptive(long targetQueueWait, TimeUnit unit) {
+            this.targetQueueWaitMillis = unit.toMillis(targetQueueWait);
+            return this;
+        }
+
+        public JobExecutor build() {
+            if (threadFactory == null) {
+                throw new IllegalArgumentException("Should provide thread factory");
+            }
+            if (queueCapacity <= 0 || minPoolSize <= 0 || maxPoolSize < minPoolSize) {
+                throw new IllegalArgumentException("Should provide positive queue capacity and pool size bounds, min <= max");
+            }
+            BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+            ThreadPoolExecutor poolExecutor;
+            if (targetQueueWaitMillis > 0) {
+                poolExecutor = new AdaptiveThreadPoolExecutor(
+                        minPoolSize,
+                        maxPoolSize,
+                        targetQueueWaitMillis,
+                        TimeUnit.MILLISECONDS,
+                        DEF_KEEP_ALIVE_TIME,
+                        DEF_KEEP_ALIVE_TIME_UNIT,
+                        queue,
+                        threadFactory,
+                        overflowPolicy.handler()
+                );
+            } else {
+                poolExecutor = new InstrumentedThreadPoolExecutor(
+                        minPoolSize,
+                        maxPoolSize,
+                        DEF_KEEP_ALIVE_TIME,
+                        DEF_KEEP_ALIVE_TIME_UNIT,
+                        queue,
+                        threadFactory,
+                        overflowPolicy.handler()
+                );
+            }
+            return new JobExecutor(poolExecutor);
+        }
     }
 
 }
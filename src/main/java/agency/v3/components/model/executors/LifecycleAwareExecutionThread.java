@@ -0,0 +1,234 @@
+package agency.v3.components.model.executors;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import agency.v3.components.model.core.Destroyable;
+import agency.v3.components.model.helpers.AppStateMonitor;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Decorates an {@link ExecutionThread} to save CPU and battery while app is in background.
+ * <p>
+ * In background non-urgent jobs are deferred, including the ones already queued in decorated executor, and
+ * periodic work pauses as it's next run is deferred too. Urgent jobs, see {@link #urgent()}, keep running, but no more than
+ * {@code backgroundConcurrency} at a time. When app enters foreground, the limit is lifted and deferred jobs are
+ * resubmitted: new jobs are held behind them until the backlog is flushed, so that they don't overtake it.
+ */
+public class LifecycleAwareExecutionThread implements ExecutionThread, Destroyable {
+
+    private final Scheduler delegate;
+    private final int backgroundConcurrency;
+
+    private final Scheduler scheduler;
+    private final ExecutionThread urgent;
+
+    private final ConcurrentLinkedQueue<GatedJob> deferred = new ConcurrentLinkedQueue<>();
+    /**
+     * Urgent jobs waiting for a free slot in background
+     */
+    private final ConcurrentLinkedQueue<GatedJob> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+    /**
+     * Number of flush requests, new jobs are held in {@code deferred} while it's non-zero
+     */
+    private final AtomicInteger flushing = new AtomicInteger();
+
+    private volatile boolean isInBackground = false;
+
+    private final Disposable subscription;
+
+    /**
+     * @param backgroundConcurrency max number of urgent jobs running at a time while app is in background
+     */
+    public LifecycleAwareExecutionThread(ExecutionThread delegate, AppStateMonitor monitor, int backgroundConcurrency) {
+        if (backgroundConcurrency <= 0) {
+            throw new IllegalArgumentException("backgroundConcurrency should be positive, was " + backgroundConcurrency);
+        }
+        this.delegate = delegate.getScheduler();
+        this.backgroundConcurrency = backgroundConcurrency;
+        this.scheduler = Schedulers.from(new Gate(false));
+        Scheduler urgentScheduler = Schedulers.from(new Gate(true));
+        this.urgent = () -> urgentScheduler;
+        this.subscription = monitor.monitor().subscribe(state -> {
+            if (state == AppStateMonitor.State.ENTERS_BACKGROUND) {
+                isInBackground = true;
+            } else {
+                enterForeground();
+            }
+        }, error -> {
+            //app state is not monitored any more, let deferred jobs run as if app is in foreground
+            enterForeground();
+        });
+    }
+
+    /**
+     * @return scheduler of non-urgent jobs, that are deferred in background
+     */
+    @Override
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * @return {@link ExecutionThread} of urgent jobs, that keep running in background
+     */
+    public ExecutionThread urgent() {
+        return urgent;
+    }
+
+    public boolean isInBackground() {
+        return isInBackground;
+    }
+
+    /**
+     * Stops following app state, and resubmits deferred jobs
+     */
+    @Override
+    public void destroy() {
+        subscription.dispose();
+        enterForeground();
+    }
+
+    private void enterForeground() {
+        isInBackground = false;
+        flush();
+    }
+
+    /**
+     * Resubmits deferred jobs, then urgent ones waiting for a slot, in order. Only one thread flushes at a time,
+     * others just make it loop once more
+     */
+    private void flush() {
+        if (flushing.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        for (;;) {
+            GatedJob job;
+            while ((job = deferred.poll()) != null) {
+                delegate.scheduleDirect(job);
+            }
+            while ((job = waiting.poll()) != null) {
+                delegate.scheduleDirect(job);
+            }
+            missed = flushing.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Admits a new non-urgent job in foreground: it's queued behind the backlog while one is being flushed
+     */
+    private void admit(GatedJob job) {
+        if (flushing.get() == 0 && deferred.isEmpty()) {
+            delegate.scheduleDirect(job);
+        } else {
+            deferred.offer(job);
+            flush();
+        }
+    }
+
+    private void defer(GatedJob job) {
+        deferred.offer(job);
+        if (!isInBackground) {
+            //app has entered foreground meanwhile, and might have flushed deferred jobs already
+            flush();
+        }
+    }
+
+    /**
+     * Runs urgent jobs waiting for a slot, as long as there are free slots
+     */
+    private void drainWaiting() {
+        for (;;) {
+            if (!isInBackground) {
+                //catches jobs queued while app was entering foreground
+                flush();
+                return;
+            }
+            int current = running.get();
+            if (current >= backgroundConcurrency) {
+                return;
+            }
+            if (waiting.isEmpty()) {
+                return;
+            }
+            if (running.compareAndSet(current, current + 1)) {
+                GatedJob job = waiting.poll();
+                if (job == null) {
+                    running.decrementAndGet();
+                    //a job might have been queued after the check, and not drained as slot looked taken
+                    continue;
+                }
+                delegate.scheduleDirect(job::runAcquired);
+            }
+        }
+    }
+
+    private final class Gate implements Executor {
+        private final boolean isUrgent;
+
+        Gate(boolean isUrgent) {
+            this.isUrgent = isUrgent;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            GatedJob job = new GatedJob(command, isUrgent);
+            if (isUrgent) {
+                delegate.scheduleDirect(job);
+            } else if (isInBackground) {
+                defer(job);
+            } else {
+                admit(job);
+            }
+        }
+    }
+
+    private final class GatedJob implements Runnable {
+        private final Runnable command;
+        private final boolean isUrgent;
+
+        GatedJob(Runnable command, boolean isUrgent) {
+            this.command = command;
+            this.isUrgent = isUrgent;
+        }
+
+        /**
+         * Decides whether to run when job is taken from decorated executor's queue
+         */
+        @Override
+        public void run() {
+            if (isInBackground) {
+                if (!isUrgent) {
+                    defer(this);
+                    return;
+                }
+                int current = running.get();
+                if (current >= backgroundConcurrency || !running.compareAndSet(current, current + 1)) {
+                    waiting.offer(this);
+                    drainWaiting();
+                    return;
+                }
+            } else {
+                running.incrementAndGet();
+            }
+            runAcquired();
+        }
+
+        void runAcquired() {
+            try {
+                command.run();
+            } finally {
+                running.decrementAndGet();
+                drainWaiting();
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package agency.v3.components.model.executors;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Unbounded lock-free multi-producer single-consumer queue of linked nodes, after Dmitry Vyukov's intrusive MPSC queue:
+ * offering is a single atomic swap, polling takes no atomic writes at all. {@link #offer(Object)} may be called
+ * from any thread, {@link #poll()} and {@link #isEmpty()} from a single consumer thread only
+ */
+final class MpscQueue<T> {
+
+    /**
+     * Last offered node, producers swap themselves in
+     */
+    private final AtomicReference<Node<T>> producerNode;
+    /**
+     * Last polled node, it's value is already taken
+     */
+    private Node<T> consumerNode;
+
+    MpscQueue() {
+        Node<T> stub = new Node<>(null);
+        this.consumerNode = stub;
+        this.producerNode = new AtomicReference<>(stub);
+    }
+
+    void offer(T value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Should not offer null");
+        }
+        Node<T> node = new Node<>(value);
+        Node<T> previous = producerNode.getAndSet(node);
+        previous.setNext(node);
+    }
+
+    /**
+     * Doesn't block, except in a brief window: a producer that has swapped it's node in, but not linked it to the
+     * previous one yet, makes the queue look non-empty with no next node. Then poll spins with {@link Thread#yield()}
+     * until the link is written, which is the producer's very next instruction. The spin lasts longer only if
+     * that producer is descheduled right between the two
+     *
+     * @return oldest value, or null if queue is empty
+     */
+    T poll() {
+        Node<T> next = consumerNode.next;
+        if (next == null) {
+            if (consumerNode == producerNode.get()) {
+                return null;
+            }
+            //a producer has swapped it's node in, but not linked it yet
+            while ((next = consumerNode.next) == null) {
+                Thread.yield();
+            }
+        }
+        T value = next.value;
+        next.value = null;
+        consumerNode = next;
+        return value;
+    }
+
+    boolean isEmpty() {
+        return consumerNode == producerNode.get();
+    }
+
+    private static final class Node<T> {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+        T value;
+        volatile Node<T> next;
+
+        Node(T value) {
+            this.value = value;
+        }
+
+        /**
+         * Ordered store: the node is fully constructed before it's visible, with no full fence
+         */
+        void setNext(Node<T> node) {
+            NEXT.lazySet(this, node);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package agency.v3.components.model.executors;
+
+import java.util.EnumMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+
+/**
+ * A {@link ThreadPoolExecutor} with priority lanes, so that background jobs do not delay user-visible ones.
+ * <p>
+ * Each queued job is ranked by the time it was queued plus it's lane's {@link Lane#maxDeferralMillis deferral}.
+ * Jobs of a higher lane overtake queued jobs of lower lanes, but only within that deferral: once a job has
+ * waited for longer, it is ahead of anything queued afterwards. This ageing keeps lower lanes from starving.
+ * <p>
+ * Let an {@link agency.v3.components.model.mvp.Interactor} declare it's lane by constructing it with {@link #lane(Lane)}.
+ */
+public class PriorityJobExecutor implements ExecutionThread {
+    private static final int DEF_POOL_SIZE = 3;
+    private static final int DEF_KEEP_ALIVE_TIME = 10;
+    private static final TimeUnit DEF_KEEP_ALIVE_TIME_UNIT = TimeUnit.SECONDS;
+
+    /**
+     * Priority lanes, from the most urgent to the least
+     */
+    public enum Lane {
+        /**
+         * Work the user is waiting for right now
+         */
+        INTERACTIVE(0),
+        /**
+         * Regular work, overtaken by interactive work queued within 100ms after it
+         */
+        NORMAL(100),
+        /**
+         * Prefetch, sync and other bulk work, overtaken by work of other lanes queued within 2s after it
+         */
+        BACKGROUND(2000);
+
+        /**
+         * For how long queued jobs of this lane may be overtaken by more urgent ones
+         */
+        public final long maxDeferralMillis;
+
+        private final long maxDeferralNanos;
+
+        Lane(long maxDeferralMillis) {
+            this.maxDeferralMillis = maxDeferralMillis;
+            this.maxDeferralNanos = TimeUnit.MILLISECONDS.toNanos(maxDeferralMillis);
+        }
+    }
+
+    private final ThreadPoolExecutor threadPoolExecutor;
+
+    private final EnumMap<Lane, ExecutionThread> lanes = new EnumMap<>(Lane.class);
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Constructs {@link PriorityJobExecutor} using default pool size and provided thread factory
+     * */
+    public PriorityJobExecutor(ThreadFactory threadFactory) {
+        this(DEF_POOL_SIZE, threadFactory);
+    }
+
+    /**
+     * Constructs {@link PriorityJobExecutor} with given number of threads and provided thread factory
+     * */
+    public PriorityJobExecutor(int poolSize, ThreadFactory threadFactory) {
+        //priority queue is unbounded, so the pool never grows past it's core size
+        this.threadPoolExecutor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                DEF_KEEP_ALIVE_TIME,
+                DEF_KEEP_ALIVE_TIME_UNIT,
+                new PriorityBlockingQueue<>(),
+                threadFactory
+        );
+        for (Lane lane : Lane.values()) {
+            Scheduler scheduler = Schedulers.from(new LaneExecutor(lane));
+            lanes.put(lane, () -> scheduler);
+        }
+    }
+
+    /**
+     * @return scheduler of {@link Lane#NORMAL} lane
+     */
+    @Override
+    public Scheduler getScheduler() {
+        return getScheduler(Lane.NORMAL);
+    }
+
+    /**
+     * @return scheduler that queues jobs into given lane
+     */
+    public Scheduler getScheduler(Lane lane) {
+        return lanes.get(lane).getScheduler();
+    }
+
+    /**
+     * @return {@link ExecutionThread} that queues jobs into given lane
+     */
+    public ExecutionThread lane(Lane lane) {
+        return lanes.get(lane);
+    }
+
+    private final class LaneExecutor implements Executor {
+        private final Lane lane;
+
+        LaneExecutor(Lane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            long rank = System.nanoTime() + lane.maxDeferralNanos;
+            threadPoolExecutor.execute(new PrioritizedJob(command, rank, sequence.getAndIncrement()));
+        }
+    }
+
+    private static final class PrioritizedJob implements Runnable, Comparable<PrioritizedJob> {
+        private final Runnable command;
+        private final long rank;
+        private final long sequence;
+
+        PrioritizedJob(Runnable command, long rank, long sequence) {
+            this.command = command;
+            this.rank = rank;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            command.run();
+        }
+
+        @Override
+        public int compareTo(PrioritizedJob other) {
+            //nanoTime based ranks should be compared by difference, they may overflow
+            long diff = rank - other.rank;
+            if (diff != 0) {
+                return diff < 0 ? -1 : 1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
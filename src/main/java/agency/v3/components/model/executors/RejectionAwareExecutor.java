@@ -0,0 +1,182 @@
+package agency.v3.components.model.executors;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.Observer;
+import io.reactivex.Scheduler;
+import io.reactivex.annotations.Nullable;
+import io.reactivex.disposables.Disposable;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Decorates an executor with a bounded queue, so that a rejected subscription fails it's stream instead of being lost.
+ * <p>
+ * {@link io.reactivex.schedulers.Schedulers#from(Executor)} reports rejections to
+ * {@link io.reactivex.plugins.RxJavaPlugins#onError} and drops the job, so it's subscription never terminates.
+ * A source subscribed through {@link #subscribeOn(Observable, Scheduler)} fails with {@link RejectedExecutionException}
+ * instead, and the error reaches the subscriber. Rejected jobs are never run, other ones, e.g. drains of observeOn
+ * or timers, are dropped and reported as {@link io.reactivex.schedulers.Schedulers#from(Executor)} does.
+ */
+public final class RejectionAwareExecutor implements Executor {
+
+    /**
+     * Subscription being submitted on current thread, if any
+     */
+    private static final ThreadLocal<Submission> SUBMISSION = new ThreadLocal<>();
+
+    private final Executor delegate;
+
+    public RejectionAwareExecutor(Executor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        //only the first job submitted is the subscription, e.g. a caller-runs policy may run it and submit others
+        Submission submission = SUBMISSION.get();
+        if (submission != null) {
+            SUBMISSION.set(null);
+        }
+        try {
+            delegate.execute(command);
+        } catch (RejectedExecutionException e) {
+            if (submission == null) {
+                throw e;
+            }
+            //the subscription is failed by it's submitter, once scheduler returns
+            submission.rejection = e;
+        }
+    }
+
+    /**
+     * Same as {@code source.subscribeOn(scheduler)}, but when the subscription is rejected by a scheduler built on
+     * {@link RejectionAwareExecutor}, source is not subscribed and stream fails with {@link RejectedExecutionException}
+     */
+    public static <T> Observable<T> subscribeOn(Observable<T> source, Scheduler scheduler) {
+        Observable<T> scheduled = source.subscribeOn(scheduler);
+        return Observable.unsafeCreate(observer -> {
+            SubmittingObserver<T> parent = new SubmittingObserver<>(observer);
+            try {
+                scheduled.subscribe(parent);
+            } finally {
+                parent.submitted();
+            }
+            RejectedExecutionException rejection = parent.rejection;
+            if (rejection != null && !parent.upstream.isDisposed()) {
+                parent.upstream.dispose();
+                observer.onError(rejection);
+            }
+        });
+    }
+
+    /**
+     * Same as {@link #subscribeOn(Observable, Scheduler)}, for {@link Flowable}
+     */
+    public static <T> Flowable<T> subscribeOn(Flowable<T> source, Scheduler scheduler) {
+        Flowable<T> scheduled = source.subscribeOn(scheduler);
+        return Flowable.unsafeCreate(subscriber -> {
+            SubmittingSubscriber<T> parent = new SubmittingSubscriber<>(subscriber);
+            try {
+                scheduled.subscribe(parent);
+            } finally {
+                parent.submitted();
+            }
+            RejectedExecutionException rejection = parent.rejection;
+            if (rejection != null) {
+                parent.upstream.cancel();
+                subscriber.onError(rejection);
+            }
+        });
+    }
+
+    /**
+     * Catches rejection of a subscription: subscribeOn hands subscription to downstream, and then schedules it right away,
+     * so the submission is current from downstream's onSubscribe until the subscribe call returns
+     */
+    private abstract static class Submission {
+        @Nullable
+        RejectedExecutionException rejection;
+        @Nullable
+        private Submission previous;
+        private boolean isSubmitting = false;
+
+        final void submitting() {
+            previous = SUBMISSION.get();
+            isSubmitting = true;
+            SUBMISSION.set(this);
+        }
+
+        final void submitted() {
+            if (isSubmitting) {
+                isSubmitting = false;
+                SUBMISSION.set(previous);
+            }
+        }
+    }
+
+    private static final class SubmittingObserver<T> extends Submission implements Observer<T> {
+        private final Observer<? super T> downstream;
+        Disposable upstream;
+
+        SubmittingObserver(Observer<? super T> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            downstream.onSubscribe(d);
+            submitting();
+        }
+
+        @Override
+        public void onNext(T t) {
+            downstream.onNext(t);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            downstream.onError(e);
+        }
+
+        @Override
+        public void onComplete() {
+            downstream.onComplete();
+        }
+    }
+
+    private static final class SubmittingSubscriber<T> extends Submission implements Subscriber<T> {
+        private final Subscriber<? super T> downstream;
+        Subscription upstream;
+
+        SubmittingSubscriber(Subscriber<? super T> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            upstream = s;
+            downstream.onSubscribe(s);
+            submitting();
+        }
+
+        @Override
+        public void onNext(T t) {
+            downstream.onNext(t);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            downstream.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            downstream.onComplete();
+        }
+    }
+}
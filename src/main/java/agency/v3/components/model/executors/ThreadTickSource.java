@@ -0,0 +1,51 @@
+package agency.v3.components.model.executors;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import agency.v3.components.model.core.Destroyable;
+
+/**
+ * {@link TickSource} backed by a single daemon thread ticking at a fixed frame interval, a stand-in for a UI loop
+ * in tests and on JVM. Requested ticks run at the next frame boundary
+ */
+public class ThreadTickSource implements TickSource, Destroyable {
+    private static final long DEF_FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+
+    private final ScheduledThreadPoolExecutor loop;
+    private final long frameNanos;
+    private final long origin = System.nanoTime();
+
+    /**
+     * Ticks at 60 fps
+     */
+    public ThreadTickSource() {
+        this(DEF_FRAME_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    public ThreadTickSource(long frameInterval, TimeUnit unit) {
+        if (frameInterval <= 0) {
+            throw new IllegalArgumentException("Frame interval should be positive, was " + frameInterval);
+        }
+        this.frameNanos = unit.toNanos(frameInterval);
+        this.loop = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "ThreadTickSource");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void requestTick(Runnable onTick) {
+        long sinceOrigin = System.nanoTime() - origin;
+        loop.schedule(onTick, frameNanos - sinceOrigin % frameNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops the loop, pending ticks are dropped
+     */
+    @Override
+    public void destroy() {
+        loop.shutdownNow();
+    }
+}
@@ -0,0 +1,12 @@
+package agency.v3.components.model.executors;
+
+/**
+ * Source of ticks of a UI loop, e.g. frames: on Android it's backed by {@code Choreographer#postFrameCallback}.
+ * See {@link ThreadTickSource} for a stand-in loop
+ */
+public interface TickSource {
+    /**
+     * Runs given callback once, on next tick, on the loop's thread. May be called from any thread
+     */
+    void requestTick(Runnable onTick);
+}
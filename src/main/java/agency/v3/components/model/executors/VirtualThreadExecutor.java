@@ -0,0 +1,130 @@
+package agency.v3.components.model.executors;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+import io.reactivex.Scheduler;
+import io.reactivex.annotations.Nullable;
+import io.reactivex.schedulers.Schedulers;
+
+
+/**
+ * {@link ExecutionThread} that runs every task on a virtual thread of it's own, so that blocking
+ * {@link agency.v3.components.model.mvp.Interactor} work scales to thousands of concurrent calls
+ * without platform thread cost.
+ * <p>
+ * Virtual threads require Java 21. The library itself targets Java 8, so the virtual thread API is
+ * looked up at runtime; check {@link #isSupported()} and fall back to {@link JobExecutor} otherwise.
+ */
+public class VirtualThreadExecutor implements ExecutionThread {
+
+    /**
+     * No limit on number of tasks running at once
+     */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private static final String DEF_NAME_PREFIX = "job-virtual-";
+
+    @Nullable
+    private final Semaphore permits;
+
+    private final ThreadFactory threadFactory;
+
+    private final Scheduler scheduler;
+
+    /**
+     * Constructs {@link VirtualThreadExecutor} with no concurrency limit
+     * @throws UnsupportedOperationException if runtime has no virtual threads
+     * */
+    public VirtualThreadExecutor() {
+        this(UNBOUNDED);
+    }
+
+    /**
+     * Constructs {@link VirtualThreadExecutor} that runs at most {@code maxConcurrency} tasks at once;
+     * the rest wait for their turn on their own, already started, virtual threads in FIFO order
+     * @throws UnsupportedOperationException if runtime has no virtual threads
+     * @throws IllegalArgumentException if maxConcurrency is not positive
+     * */
+    public VirtualThreadExecutor(int maxConcurrency) {
+        this(DEF_NAME_PREFIX, maxConcurrency);
+    }
+
+    /**
+     * Constructs {@link VirtualThreadExecutor} that names it's threads with given prefix and a counter
+     * @throws UnsupportedOperationException if runtime has no virtual threads
+     * @throws IllegalArgumentException if maxConcurrency is not positive
+     * */
+    public VirtualThreadExecutor(String namePrefix, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency should be positive, was " + maxConcurrency);
+        }
+        this.threadFactory = virtualThreadFactory(namePrefix);
+        this.permits = maxConcurrency == UNBOUNDED ? null : new Semaphore(maxConcurrency, /*fair*/true);
+        this.scheduler = Schedulers.from(new VirtualThreadPerTask());
+    }
+
+    /**
+     * @return whether current runtime supports virtual threads
+     */
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Same as {@code Thread.ofVirtual().name(prefix, 0).factory()}
+     */
+    private static ThreadFactory virtualThreadFactory(String namePrefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method name = builderClass.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 runtime", e);
+        }
+    }
+
+    private final class VirtualThreadPerTask implements Executor {
+
+        @Override
+        public void execute(Runnable command) {
+            Runnable task = permits == null ? command : new Limited(command);
+            threadFactory.newThread(task).start();
+        }
+    }
+
+    /**
+     * Waits for a permit on it's own virtual thread, so that submitting thread never blocks
+     */
+    private final class Limited implements Runnable {
+        private final Runnable command;
+
+        Limited(Runnable command) {
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            permits.acquireUninterruptibly();
+            try {
+                command.run();
+            } finally {
+                permits.release();
+            }
+        }
+    }
+}
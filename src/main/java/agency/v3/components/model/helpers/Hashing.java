@@ -0,0 +1,32 @@
+package agency.v3.components.model.helpers;
+
+/**
+ * Hash mixing shared by pairs and hash tables
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * Combines hashes of two elements in an order-sensitive way, and spreads the result across all bits,
+     * so that (a, b) and (b, a) differ and (x, x) is not constant. First hash is mixed before combining,
+     * as plain {@code 31 * first + second} collides for small values, e.g. (0, 31) and (1, 0)
+     */
+    public static int combine(int first, int second) {
+        return mix(mix(first) + second);
+    }
+
+    /**
+     * Final mix of MurmurHash3: spreads bits of keys that differ in low bits mostly, e.g. resource ids,
+     * across the whole int, so that they can be masked to index a table
+     */
+    public static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,174 @@
+package agency.v3.components.model.helpers;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import agency.v3.components.model.core.Destroyable;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * {@link ReferenceWatcher} backed by a {@link ReferenceQueue}.
+ * <p>
+ * Watch an object when it should become garbage, e.g. a view when it's destroyed, or a presenter when it's destroyed.
+ * A low priority daemon thread reaps collected objects, and reports each one still reachable after given threshold
+ * to {@link Listener}, once. Garbage that's just not been collected yet may be reported too, unless watcher is
+ * constructed to force a GC before reporting: that's meant for debug builds and tests, as it stalls the app.
+ * Objects are watched by weak references, so watching never causes a leak itself.
+ */
+public class ReferenceQueueWatcher implements ReferenceWatcher, Destroyable {
+    private static final long REAP_INTERVAL_MILLIS = 1000;
+    /**
+     * For how long to wait for references to be enqueued after GC is requested
+     */
+    private static final long GC_WAIT_MILLIS = 100;
+
+    /**
+     * Notified of retained objects, on reaper thread
+     */
+    public interface Listener {
+        /**
+         * @param name           name of retained object
+         * @param retainedMillis for how long it's been reachable since it's been watched
+         */
+        void onRetained(String name, long retainedMillis);
+    }
+
+    private final long thresholdNanos;
+    private final Listener listener;
+    private final boolean shouldForceGc;
+
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+    private final ConcurrentHashMap<WatchedReference, Boolean> watched = new ConcurrentHashMap<>();
+
+    private final Thread reaper;
+
+    /**
+     * @param threshold for how long a watched object may stay reachable before it's reported
+     */
+    public ReferenceQueueWatcher(long threshold, TimeUnit unit, Listener listener) {
+        this(threshold, unit, listener, false);
+    }
+
+    /**
+     * @param threshold     for how long a watched object may stay reachable before it's reported
+     * @param shouldForceGc whether to request a GC before reporting, so that only objects that survive it are
+     *                      reported. Use it in debug builds and tests only
+     */
+    public ReferenceQueueWatcher(long threshold, TimeUnit unit, Listener listener, boolean shouldForceGc) {
+        this.thresholdNanos = unit.toNanos(threshold);
+        this.listener = listener;
+        this.shouldForceGc = shouldForceGc;
+        this.reaper = new Thread(this::reap, "ReferenceQueueWatcher");
+        this.reaper.setDaemon(true);
+        this.reaper.setPriority(Thread.MIN_PRIORITY);
+        this.reaper.start();
+    }
+
+    @Override
+    public void watch(Object watchedReference) {
+        watch(watchedReference, watchedReference.getClass().getName());
+    }
+
+    @Override
+    public void watch(Object watchedReference, String referenceName) {
+        watched.put(new WatchedReference(watchedReference, referenceName, collected), Boolean.TRUE);
+    }
+
+    /**
+     * @return number of watched objects that are not collected yet
+     */
+    public int retainedCount() {
+        return watched.size();
+    }
+
+    /**
+     * Stops reaper thread and forgets watched objects
+     */
+    @Override
+    public void destroy() {
+        reaper.interrupt();
+        watched.clear();
+    }
+
+    private void reap() {
+        long nextCheck = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                expunge(collected.remove(REAP_INTERVAL_MILLIS));
+                long now = System.nanoTime();
+                if (now - nextCheck >= 0) {
+                    nextCheck = now + TimeUnit.MILLISECONDS.toNanos(REAP_INTERVAL_MILLIS);
+                    if (hasSuspects(now)) {
+                        if (shouldForceGc) {
+                            runGc();
+                        }
+                        report(System.nanoTime());
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void expunge(Reference<?> ref) {
+        while (ref != null) {
+            watched.remove(ref);
+            ref = collected.poll();
+        }
+    }
+
+    /**
+     * @return whether there are objects to report unless they're collected
+     */
+    private boolean hasSuspects(long now) {
+        for (WatchedReference ref : watched.keySet()) {
+            if (!ref.isReported && now - ref.watchedAtNanos >= thresholdNanos) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Requests GC, and reaps what it's collected
+     */
+    private void runGc() throws InterruptedException {
+        Runtime.getRuntime().gc();
+        //references are enqueued by another thread, shortly after collection
+        Thread.sleep(GC_WAIT_MILLIS);
+        expunge(collected.poll());
+    }
+
+    private void report(long now) {
+        for (WatchedReference ref : watched.keySet()) {
+            long retainedNanos = now - ref.watchedAtNanos;
+            if (!ref.isReported && retainedNanos >= thresholdNanos && ref.get() != null) {
+                ref.isReported = true;
+                try {
+                    listener.onRetained(ref.name, TimeUnit.NANOSECONDS.toMillis(retainedNanos));
+                } catch (Throwable e) {
+                    //a failing listener shouldn't stop the reaper
+                    RxJavaPlugins.onError(e);
+                }
+            }
+        }
+    }
+
+    private static final class WatchedReference extends WeakReference<Object> {
+        final String name;
+        final long watchedAtNanos = System.nanoTime();
+        /**
+         * Accessed by reaper thread only
+         */
+        boolean isReported = false;
+
+        WatchedReference(Object referent, String name, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.name = name;
+        }
+    }
+}
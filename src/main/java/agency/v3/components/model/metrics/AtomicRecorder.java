@@ -0,0 +1,54 @@
+package agency.v3.components.model.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link MetricsRecorder} that keeps metrics in memory: counters in {@link LongAdder}s, gauges as last set values,
+ * and distributions in {@link LatencyHistogram}s. Lock-free, read it periodically to report metrics elsewhere
+ */
+public class AtomicRecorder implements MetricsRecorder {
+
+    private final LongAdder[] counters = new LongAdder[Metric.values().length];
+    private final AtomicLongArray gauges = new AtomicLongArray(Metric.values().length);
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Metric.values().length];
+
+    public AtomicRecorder() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void counter(Metric metric, long delta) {
+        counters[metric.ordinal()].add(delta);
+    }
+
+    @Override
+    public void gauge(Metric metric, long value) {
+        gauges.set(metric.ordinal(), value);
+    }
+
+    @Override
+    public void record(Metric metric, long value) {
+        histograms[metric.ordinal()].record(value);
+    }
+
+    public long counterValue(Metric metric) {
+        return counters[metric.ordinal()].sum();
+    }
+
+    public long gaugeValue(Metric metric) {
+        return gauges.get(metric.ordinal());
+    }
+
+    public LatencyHistogram histogram(Metric metric) {
+        return histograms[metric.ordinal()];
+    }
+}
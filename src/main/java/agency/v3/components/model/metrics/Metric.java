@@ -0,0 +1,43 @@
+package agency.v3.components.model.metrics;
+
+/**
+ * Points of the library instrumented for {@link MetricsRecorder}. Durations are in nanoseconds
+ */
+public enum Metric {
+    /**
+     * Counter of values set into variables, distinct or not
+     */
+    VARIABLE_SET,
+    /**
+     * Counter of values set into variables and filtered as equal to current one
+     */
+    VARIABLE_FILTERED,
+    /**
+     * Sizes of dispose bags, recorded on each addition
+     */
+    DISPOSE_BAG_SIZE,
+    /**
+     * Duration of {@code Presenter.attach()}, including first initialization
+     */
+    PRESENTER_ATTACH,
+    /**
+     * Duration of {@code Presenter.onInit()} or {@code onRestored()}
+     */
+    PRESENTER_INIT,
+    /**
+     * For how long jobs wait in {@code JobExecutor}'s queue
+     */
+    JOB_QUEUE_WAIT,
+    /**
+     * For how long jobs run in {@code JobExecutor}
+     */
+    JOB_EXECUTION,
+    /**
+     * Gauge of jobs waiting in {@code JobExecutor}'s queue, updated as jobs start
+     */
+    JOB_QUEUE_DEPTH,
+    /**
+     * Gauge of {@code JobExecutor}'s threads running jobs, updated as jobs start and finish
+     */
+    JOB_ACTIVE_THREADS
+}
@@ -0,0 +1,57 @@
+package agency.v3.components.model.metrics;
+
+/**
+ * Holds {@link MetricsRecorder} used by the library. A no-op one is used by default: with no other recorder
+ * installed, calls to it are inlined into nothing by the JIT, and instrumented code skips measuring entirely
+ */
+public final class Metrics {
+
+    private static final MetricsRecorder NO_OP = new MetricsRecorder() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void counter(Metric metric, long delta) {
+        }
+
+        @Override
+        public void gauge(Metric metric, long value) {
+        }
+
+        @Override
+        public void record(Metric metric, long value) {
+        }
+    };
+
+    /**
+     * Not volatile, so that reading it is free on hot paths
+     */
+    private static MetricsRecorder recorder = NO_OP;
+
+    private Metrics() {
+    }
+
+    /**
+     * Installs a recorder. Do it once at startup, before instrumented code runs, e.g. in Application.onCreate;
+     * threads already running might keep seeing previous recorder
+     */
+    public static void install(MetricsRecorder metricsRecorder) {
+        if (metricsRecorder == null) {
+            throw new IllegalArgumentException("Should provide metrics recorder");
+        }
+        recorder = metricsRecorder;
+    }
+
+    /**
+     * Installs the no-op recorder back
+     */
+    public static void uninstall() {
+        recorder = NO_OP;
+    }
+
+    public static MetricsRecorder recorder() {
+        return recorder;
+    }
+}
@@ -0,0 +1,28 @@
+package agency.v3.components.model.metrics;
+
+/**
+ * Receives metrics of the library's hot paths, install one with {@link Metrics#install(MetricsRecorder)}.
+ * Methods are called on hot paths from any thread, so they should be cheap and thread safe
+ */
+public interface MetricsRecorder {
+
+    /**
+     * @return whether metrics should be measured at all; instrumented code skips measuring, e.g. reading clock, if not
+     */
+    boolean isEnabled();
+
+    /**
+     * Adds delta to a counter
+     */
+    void counter(Metric metric, long delta);
+
+    /**
+     * Sets current value of a gauge
+     */
+    void gauge(Metric metric, long value);
+
+    /**
+     * Records a value into a distribution, e.g. a duration in nanoseconds
+     */
+    void record(Metric metric, long value);
+}
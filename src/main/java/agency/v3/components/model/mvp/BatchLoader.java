@@ -0,0 +1,186 @@
+package agency.v3.components.model.mvp;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.annotations.Nullable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.subjects.AsyncSubject;
+
+/**
+ * Collects keys requested within a time or size window and loads them with one batched upstream call,
+ * e.g. one request for all rows of a list screen instead of a request per row. Obtain one with
+ * {@link Interactor#batchLoader(BatchFunction, int, long, TimeUnit)}.
+ * <p>
+ * The window opens with the first key requested and closes after given time, or as soon as it holds
+ * {@code maxBatchSize} distinct keys. Then batch function is called on worker, and each caller gets it's
+ * own value on notifier. Equal keys requested within one window are loaded once. Once every caller of a batch
+ * has left, it's call is disposed, or not made at all.
+ */
+public class BatchLoader<K, V> {
+
+    /**
+     * Loads values for a batch of keys
+     */
+    public interface BatchFunction<K, V> {
+        /**
+         * @return values by key; may be emitted in several chunks. Keys missing from all of them fail with {@link NoSuchElementException}
+         */
+        Observable<Map<K, V>> load(List<K> keys);
+    }
+
+    private final BatchFunction<K, V> batchFunction;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final Scheduler worker;
+    private final Scheduler notifier;
+
+    /**
+     * Batch that is collecting keys, guarded by this
+     */
+    @Nullable
+    private Batch<K, V> collecting = null;
+
+    BatchLoader(BatchFunction<K, V> batchFunction, int maxBatchSize, long window, TimeUnit unit, Scheduler worker, Scheduler notifier) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize should be positive, was " + maxBatchSize);
+        }
+        this.batchFunction = batchFunction;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = unit.toNanos(window);
+        this.worker = worker;
+        this.notifier = notifier;
+    }
+
+    /**
+     * Requests value of given key. Key joins current batch on subscription
+     * @return an Observable that emits the value on notifier
+     */
+    public Observable<V> load(K key) {
+        return Observable.defer(() -> enqueue(key)).observeOn(notifier);
+    }
+
+    private Observable<V> enqueue(K key) {
+        Batch<K, V> opened = null;
+        Batch<K, V> full = null;
+        Batch<K, V> waitingFor;
+        AsyncSubject<V> result;
+        synchronized (this) {
+            if (collecting == null) {
+                collecting = new Batch<>();
+                opened = collecting;
+            }
+            Batch<K, V> batch = collecting;
+            batch.waiters++;
+            waitingFor = batch;
+            result = batch.results.get(key);
+            if (result == null) {
+                result = AsyncSubject.create();
+                batch.results.put(key, result);
+            }
+            if (batch.results.size() >= maxBatchSize) {
+                collecting = null;
+                full = batch;
+            }
+        }
+        //scheduling happens outside of the lock, a trampoline worker would run the batch right here
+        if (full != null) {
+            Batch<K, V> batch = full;
+            worker.scheduleDirect(() -> dispatch(batch));
+        } else if (opened != null) {
+            Batch<K, V> batch = opened;
+            worker.scheduleDirect(() -> closeWindow(batch), windowNanos, TimeUnit.NANOSECONDS);
+        }
+        return result.doFinally(() -> leave(waitingFor));
+    }
+
+    /**
+     * A caller of given batch has got it's value, failed or disposed
+     */
+    private void leave(Batch<K, V> batch) {
+        Disposable call;
+        synchronized (this) {
+            if (--batch.waiters > 0) {
+                return;
+            }
+            if (collecting == batch) {
+                collecting = null;
+            }
+            call = batch.call;
+        }
+        if (call != null) {
+            call.dispose();
+        }
+    }
+
+    private void closeWindow(Batch<K, V> batch) {
+        synchronized (this) {
+            if (collecting != batch) {
+                //already dispatched because it got full
+                return;
+            }
+            collecting = null;
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch<K, V> batch) {
+        synchronized (this) {
+            if (batch.waiters == 0) {
+                //every caller has left while keys were collected
+                return;
+            }
+        }
+        Map<K, AsyncSubject<V>> unresolved = batch.results;
+        Observable<Map<K, V>> call;
+        try {
+            call = batchFunction.load(new ArrayList<>(unresolved.keySet()));
+        } catch (Throwable t) {
+            call = Observable.error(t);
+        }
+        Disposable subscription = call.subscribe(
+                values -> {
+                    for (Map.Entry<K, V> e : values.entrySet()) {
+                        AsyncSubject<V> result = unresolved.remove(e.getKey());
+                        if (result != null) {
+                            result.onNext(e.getValue());
+                            result.onComplete();
+                        }
+                    }
+                },
+                error -> {
+                    for (AsyncSubject<V> result : unresolved.values()) {
+                        result.onError(error);
+                    }
+                    unresolved.clear();
+                },
+                () -> {
+                    for (Map.Entry<K, AsyncSubject<V>> e : unresolved.entrySet()) {
+                        e.getValue().onError(new NoSuchElementException("Batch has no value for key " + e.getKey()));
+                    }
+                    unresolved.clear();
+                });
+        boolean isAbandoned;
+        synchronized (this) {
+            batch.call = subscription;
+            isAbandoned = batch.waiters == 0;
+        }
+        if (isAbandoned) {
+            subscription.dispose();
+        }
+    }
+
+    private static final class Batch<K, V> {
+        final LinkedHashMap<K, AsyncSubject<V>> results = new LinkedHashMap<>();
+        /*guarded by the loader*/
+        int waiters = 0;
+        @Nullable
+        Disposable call = null;
+    }
+}
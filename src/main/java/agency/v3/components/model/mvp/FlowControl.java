@@ -0,0 +1,112 @@
+package agency.v3.components.model.mvp;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.BackpressureOverflowStrategy;
+import io.reactivex.annotations.Nullable;
+
+/**
+ * Bounds of a backpressured {@link Interactor} call, see
+ * {@link Interactor#applySchedulers(io.reactivex.Flowable, FlowControl, io.reactivex.subscribers.DisposableSubscriber)}.
+ * <p>
+ * Items are handed off to notifier in chunks of up to {@code chunkSize}, and notifier requests up to {@code prefetch}
+ * chunks ahead, so a source that honors backpressure is slowed down to notifier's pace.
+ * <p>
+ * For a source that can not be slowed down, e.g. a hot one, set an overflow strategy: up to {@code bufferSize} items wait
+ * on worker side when notifier falls behind, the rest are handled by that strategy. Mind that the buffer requests
+ * everything from the source. With chunk timespan set, partial chunks are handed off once it elapses. Timed chunks
+ * can not slow the source down, so then the buffer holds whole chunks, overflow strategy drops chunks, and it's
+ * {@link BackpressureOverflowStrategy#ERROR} unless set.
+ */
+public final class FlowControl {
+    private static final int DEF_BUFFER_SIZE = 1024;
+    private static final int DEF_CHUNK_SIZE = 64;
+    private static final int DEF_PREFETCH = 16;
+
+    final int prefetch;
+    final int bufferSize;
+    final int chunkSize;
+    final long chunkTimespanNanos;
+    @Nullable
+    final BackpressureOverflowStrategy overflowStrategy;
+
+    FlowControl(int prefetch, int bufferSize, int chunkSize, long chunkTimespanNanos, @Nullable BackpressureOverflowStrategy overflowStrategy) {
+        this.prefetch = prefetch;
+        this.bufferSize = bufferSize;
+        this.chunkSize = chunkSize;
+        this.chunkTimespanNanos = chunkTimespanNanos;
+        this.overflowStrategy = overflowStrategy;
+    }
+
+    /**
+     * @return chunks of 64 items, 16 of them prefetched, with no overflow strategy
+     */
+    public static FlowControl defaults() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+
+    public static class Builder {
+        private int prefetch = DEF_PREFETCH;
+        private int bufferSize = DEF_BUFFER_SIZE;
+        private int chunkSize = DEF_CHUNK_SIZE;
+        private long chunkTimespanNanos = 0;
+        private BackpressureOverflowStrategy overflowStrategy = null;
+
+        public Builder() {
+
+        }
+
+        /**
+         * Number of chunks notifier requests ahead, 16 by default
+         * */
+        public Builder prefetch(int prefetch) {
+            this.prefetch = prefetch;
+            return this;
+        }
+
+        /**
+         * Max number of items buffered by overflow strategy, 1024 by default
+         * */
+        public Builder bufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Max number of items handed off to notifier at once, 64 by default
+         * */
+        public Builder chunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Hand off a partial chunk once given time elapses since previous chunk. Disabled by default
+         * */
+        public Builder chunkTimespan(long timespan, TimeUnit unit) {
+            this.chunkTimespanNanos = unit.toNanos(timespan);
+            return this;
+        }
+
+        /**
+         * Buffer items for a source that can not be slowed down, and handle overflow of the buffer by given strategy.
+         * None by default
+         * */
+        public Builder overflowStrategy(BackpressureOverflowStrategy overflowStrategy) {
+            this.overflowStrategy = overflowStrategy;
+            return this;
+        }
+
+        public FlowControl build() {
+            if (prefetch <= 0 || chunkSize <= 0 || bufferSize < chunkSize) {
+                throw new IllegalArgumentException("Should provide positive prefetch and chunk size, and buffer size no less than chunk size");
+            }
+            return new FlowControl(prefetch, bufferSize, chunkSize, chunkTimespanNanos, overflowStrategy);
+        }
+    }
+}
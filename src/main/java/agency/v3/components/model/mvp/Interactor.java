@@ -1,15 +1,31 @@
 package agency.v3.components.model.mvp;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import agency.v3.components.model.core.AutodisposableSubscriber;
+import agency.v3.components.model.core.Consumer0;
 import agency.v3.components.model.executors.ExecutionThread;
 import agency.v3.components.model.executors.PostExecutionThread;
+import agency.v3.components.model.executors.RejectionAwareExecutor;
+import agency.v3.components.model.retry.RecoveryExhaustedException;
+import agency.v3.components.model.retry.RetryEngine;
+import agency.v3.components.model.tracing.TraceContext;
+import agency.v3.components.model.tracing.TracingScheduler;
+import io.reactivex.BackpressureOverflowStrategy;
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
 import io.reactivex.Scheduler;
+import io.reactivex.functions.Action;
 import io.reactivex.observers.DisposableObserver;
+import io.reactivex.subscribers.DisposableSubscriber;
 
 /**
  * An interactor base class
  * */
 public abstract class Interactor {
+    private static final Action NO_ACTION = () -> {
+    };
 
     protected final Scheduler worker;
     protected final Scheduler notifier;
@@ -34,6 +50,95 @@ public abstract class Interactor {
      * applies this {@link Interactor}'s schedulers to transform source Observable and subscribes {@link DisposableObserver} to transformed {@link Observable}
      * */
     protected <T> DisposableObserver<T> applySchedulers(Observable<T> source, DisposableObserver<T> subscriber) {
-        return source.compose(o -> o.subscribeOn(worker).observeOn(notifier)).subscribeWith(subscriber);
+        return source.compose(o -> RejectionAwareExecutor.subscribeOn(o, worker).observeOn(notifier)).subscribeWith(subscriber);
+    }
+
+    /**
+     * Same as {@link #applySchedulers(Observable, DisposableObserver)}, traced as a call with given name: a child of
+     * current {@link TraceContext} if any. Spans are recorded when worker and notifier are traced, see {@link TracingScheduler}
+     * */
+    protected <T> DisposableObserver<T> applySchedulers(String traceName, Observable<T> source, DisposableObserver<T> subscriber) {
+        TraceContext.Scope scope = TraceContext.start(traceName).makeCurrent();
+        try {
+            return applySchedulers(source, subscriber);
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Same as {@link #applySchedulers(Observable, DisposableObserver)}, for a subscriber that is disposed by it's lifecycle scope
+     * */
+    protected <T> AutodisposableSubscriber<T> applySchedulers(Observable<T> source, AutodisposableSubscriber<T> subscriber) {
+        return source.compose(o -> RejectionAwareExecutor.subscribeOn(o, worker).observeOn(notifier)).subscribeWith(subscriber);
+    }
+
+    /**
+     * Backpressured counterpart of {@link #applySchedulers(Observable, DisposableObserver)} for large streams:
+     * items are handed off to notifier in chunks, and the memory they take while notifier falls behind is bounded by {@link FlowControl}
+     * */
+    protected <T> DisposableSubscriber<List<T>> applySchedulers(Flowable<T> source, FlowControl flowControl, DisposableSubscriber<List<T>> subscriber) {
+        Flowable<T> items = RejectionAwareExecutor.subscribeOn(source, worker);
+        Flowable<List<T>> chunks;
+        if (flowControl.chunkTimespanNanos > 0) {
+            //timed chunks are emitted regardless of requests, so they're what gets bounded
+            BackpressureOverflowStrategy strategy = flowControl.overflowStrategy != null
+                    ? flowControl.overflowStrategy
+                    : BackpressureOverflowStrategy.ERROR;
+            chunks = items
+                    .buffer(flowControl.chunkTimespanNanos, TimeUnit.NANOSECONDS, worker, flowControl.chunkSize)
+                    //timer closes a chunk even if no item's come, and empty ones shouldn't take buffer or wake notifier
+                    .filter(chunk -> !chunk.isEmpty())
+                    .onBackpressureBuffer(flowControl.bufferSize / flowControl.chunkSize, NO_ACTION, strategy);
+        } else {
+            if (flowControl.overflowStrategy != null) {
+                items = items.onBackpressureBuffer(flowControl.bufferSize, NO_ACTION, flowControl.overflowStrategy);
+            }
+            chunks = items.buffer(flowControl.chunkSize);
+        }
+        return chunks.observeOn(notifier, false, flowControl.prefetch).subscribeWith(subscriber);
+    }
+
+    /**
+     * Same as {@link #applySchedulers(Observable, DisposableObserver)}, but recovers failed calls to given endpoint by {@link RetryEngine}
+     * on worker. Subscriber gets {@link RecoveryExhaustedException} once automatic recovery is exhausted
+     *
+     * @param recovery what user's "retry" should do then, e.g. make the call again
+     * */
+    protected <T> DisposableObserver<T> applySchedulers(RetryEngine retryEngine, String endpoint, Observable<T> source, Consumer0 recovery, DisposableObserver<T> subscriber) {
+        return applySchedulers(source.compose(retryEngine.retrying(endpoint, worker, recovery)), subscriber);
+    }
+
+    /**
+     * Same as {@link #applySchedulers(Observable, DisposableObserver)}, but joins a call with equal key that is
+     * already in flight in given {@link SingleFlight} instead of subscribing to source once again
+     * */
+    protected <T> DisposableObserver<T> applySchedulers(SingleFlight flights, Object key, Observable<T> source, DisposableObserver<T> subscriber) {
+        return flights.join(key, source, worker).observeOn(notifier).subscribeWith(subscriber);
+    }
+
+    /**
+     * Same as {@link #applySchedulers(Observable, DisposableObserver)}, but serves the call from given {@link ResultCache}
+     * when it has a result for the key, and caches what source emits otherwise
+     * */
+    protected <K, T> DisposableObserver<T> applySchedulers(ResultCache<K, T> cache, K key, Observable<T> source, DisposableObserver<T> subscriber) {
+        return cache.load(key, source, worker, notifier).subscribeWith(subscriber);
+    }
+
+    /**
+     * Creates a {@link BatchLoader} that loads batches on this {@link Interactor}'s worker and notifies on it's notifier
+     *
+     * @param maxBatchSize max number of distinct keys in one batch
+     * @param window       for how long to collect keys after the first one is requested
+     * */
+    protected <K, V> BatchLoader<K, V> batchLoader(BatchLoader.BatchFunction<K, V> batchFunction, int maxBatchSize, long window, TimeUnit unit) {
+        return new BatchLoader<>(batchFunction, maxBatchSize, window, unit, worker, notifier);
+    }
+
+    /**
+     * Requests a value of given key from {@link BatchLoader} and subscribes {@link DisposableObserver} to it
+     * */
+    protected <K, T> DisposableObserver<T> applySchedulers(BatchLoader<K, T> loader, K key, DisposableObserver<T> subscriber) {
+        return loader.load(key).subscribeWith(subscriber);
     }
 }
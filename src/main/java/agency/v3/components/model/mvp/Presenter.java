@@ -1,19 +1,29 @@
 package agency.v3.components.model.mvp;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 
+import agency.v3.components.model.core.AutodisposableSubscriber;
 import agency.v3.components.model.core.CompositeDisposableBuilder;
 import agency.v3.components.model.core.Destroyable;
 import agency.v3.components.model.core.DisposableBuilder;
 import agency.v3.components.model.core.DisposeBag;
+import agency.v3.components.model.core.LifecycleScope;
+import agency.v3.components.model.helpers.ReferenceWatcher;
+import agency.v3.components.model.metrics.Metric;
+import agency.v3.components.model.metrics.Metrics;
+import agency.v3.components.model.metrics.MetricsRecorder;
+import io.reactivex.Observer;
+import io.reactivex.annotations.Nullable;
 import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
 
 /**
  * Base presenter claass
  * */
 public abstract class Presenter<View extends IView, PresenterState> implements Destroyable {
+    private static final String ATTACH_CONNECTION = "attach";
 
     protected final PresenterState state;
 
@@ -23,12 +33,38 @@ public abstract class Presenter<View extends IView, PresenterState> implements D
     private final DisposeBag onDestroyBag = new DisposeBag();
 
     /**
-     * Maps View to it's properties' bindings
+     * Maps View to it's properties' bindings by identity, until view is detached
      */
-    private HashMap<View, DisposeBag> connections = new HashMap<>();
+    private final IdentityHashMap<View, DisposeBag> connections = new IdentityHashMap<>();
+
+    /**
+     * Watches detached views to report the ones that leak, if set
+     */
+    @Nullable
+    private ReferenceWatcher viewWatcher = null;
+
+    /**
+     * Ends when presenter is destroyed
+     */
+    private final LifecycleScope destroyScope = new LifecycleScope();
+
+    /**
+     * Scope of the view being attached or attached last, ends when it's connection is disposed
+     */
+    private LifecycleScope attachScope = null;
 
     private boolean isInitialized = false;
 
+    /**
+     * Whether presenter is being destroyed to save memory, rather than finished
+     */
+    private boolean isEvicted = false;
+
+    /**
+     * Snapshot of state, if bound
+     */
+    private SnapshotStore.Binding<PresenterState> snapshot = null;
+
     /**
      * Constructs Presenter, initializing it's internal state with provided state
      * */
@@ -41,8 +77,16 @@ public abstract class Presenter<View extends IView, PresenterState> implements D
      */
     private void init() {
         if (!isInitialized) {
-
-            onInit();
+            MetricsRecorder metrics = Metrics.recorder();
+            long startedAt = metrics.isEnabled() ? System.nanoTime() : 0;
+            if (snapshot != null && snapshot.restore()) {
+                onRestored();
+            } else {
+                onInit();
+            }
+            if (metrics.isEnabled()) {
+                metrics.record(Metric.PRESENTER_INIT, System.nanoTime() - startedAt);
+            }
             isInitialized = true;
         }
     }
@@ -52,6 +96,35 @@ public abstract class Presenter<View extends IView, PresenterState> implements D
      */
     protected abstract void onInit();
 
+    /**
+     * Invoked instead of {@link #onInit()} when state is restored from snapshot. Calls {@link #onInit()} by default,
+     * override to skip loading what restored state already has
+     */
+    protected void onRestored() {
+        onInit();
+    }
+
+    /**
+     * Binds state to a snapshot with given key in {@link SnapshotStore}: state is restored from it right before
+     * first initialization, and snapshot is rewritten on {@link SnapshotStore#flush()} after {@link #markStateDirty()}.
+     * Call it from constructor
+     */
+    protected final void bindSnapshot(SnapshotStore store, String key, StateCodec<PresenterState> codec) {
+        if (isInitialized) {
+            throw new IllegalStateException("Should bind snapshot before presenter is initialized");
+        }
+        snapshot = store.bind(key, codec, state);
+    }
+
+    /**
+     * Marks state changed since last snapshot, so that it's written on next {@link SnapshotStore#flush()}
+     */
+    protected final void markStateDirty() {
+        if (snapshot != null) {
+            snapshot.markDirty();
+        }
+    }
+
     /**
      * Invoked each time when View is attached to presenter.
      *
@@ -62,11 +135,75 @@ public abstract class Presenter<View extends IView, PresenterState> implements D
     /**
      * <p>Attaches to view. Subscribe to all view's properties here.</p>
      * <p>View and Presenter are connected functionally: presenter consumes view's outputs and notifies view's inputs</p>
-     * View layer should manage the subscriptions in order not to leak memory
+     * View layer should manage the subscriptions in order not to leak memory: presenter keeps the view reachable
+     * until returned connection is disposed. Attaching the same view again disposes it's previous connection
+     *
+     * @return connection of view, disposing it detaches the view and disposes it's {@link #viewBag(IView)}
      */
     public final Disposable attach(View view) {
+        MetricsRecorder metrics = Metrics.recorder();
+        long startedAt = metrics.isEnabled() ? System.nanoTime() : 0;
         init();
-        return onAttach(view);
+        LifecycleScope scope = new LifecycleScope();
+        attachScope = scope;
+        Disposable connection = new CompositeDisposable(onAttach(view), scope);
+        viewBag(view).addDisposable(ATTACH_CONNECTION, connection);
+        if (metrics.isEnabled()) {
+            metrics.record(Metric.PRESENTER_ATTACH, System.nanoTime() - startedAt);
+        }
+        return Disposables.fromAction(() -> {
+            //a connection replaced by attaching the view again is disposed already, and mustn't detach the new one
+            if (!connection.isDisposed()) {
+                detach(view);
+            }
+        });
+    }
+
+    private void detach(View view) {
+        DisposeBag bag = connections.remove(view);
+        if (bag != null) {
+            bag.disposeAll();
+        }
+        if (viewWatcher != null) {
+            viewWatcher.watch(view);
+        }
+    }
+
+    /**
+     * Views are watched once they're detached, see {@link PresenterRegistry.Builder#referenceWatcher(ReferenceWatcher)}
+     */
+    final void watchViews(ReferenceWatcher watcher) {
+        viewWatcher = watcher;
+    }
+
+    /**
+     * Binds observer to current view attachment: it's disposed with connection returned by {@link #attach(IView)}.
+     * Use it in {@link #onAttach(IView)}
+     */
+    protected <T> AutodisposableSubscriber<T> untilDetach(Observer<T> observer) {
+        if (attachScope == null) {
+            throw new IllegalStateException("No view has been attached");
+        }
+        return new AutodisposableSubscriber<>(attachScope, observer);
+    }
+
+    /**
+     * Binds observer to presenter's life: it's disposed when presenter is destroyed
+     */
+    protected <T> AutodisposableSubscriber<T> untilDestroy(Observer<T> observer) {
+        return new AutodisposableSubscriber<>(destroyScope, observer);
+    }
+
+    /**
+     * @return bindings of given view, disposed when view is detached or presenter is destroyed
+     */
+    protected DisposeBag viewBag(View view) {
+        DisposeBag bag = connections.get(view);
+        if (bag == null) {
+            bag = new DisposeBag();
+            connections.put(view, bag);
+        }
+        return bag;
     }
 
     /**
@@ -104,18 +241,34 @@ public abstract class Presenter<View extends IView, PresenterState> implements D
 
 
     /**
-     * Destroy this presenter. Make sure you destroy presenter when Controller is destroyed (not when View is)
+     * Destroy this presenter. Make sure you destroy presenter when Controller is destroyed (not when View is).
+     * It's snapshot is removed, unless presenter is evicted
      */
     public void destroy() {
-        for (Map.Entry<View, DisposeBag> e : connections.entrySet()) {
-            DisposeBag bag = e.getValue();
-            if (bag != null) {
-                bag.disposeAll();
-            }
+        for (View view : new ArrayList<>(connections.keySet())) {
+            detach(view);
         }
-        connections.clear();
+        destroyScope.end();
 
         onDestroyBag.disposeAll();
+
+        if (snapshot != null) {
+            if (!isEvicted) {
+                snapshot.remove();
+            } else if (isInitialized) {
+                //state of a presenter that's never been initialized isn't restored, and would overwrite it's snapshot
+                snapshot.save();
+            }
+        }
+    }
+
+    /**
+     * Destroys this presenter to save memory, e.g. by {@link PresenterRegistry}: it's snapshot is saved with current
+     * state and kept, so that a presenter of the same scope is restored from it
+     */
+    final void evict() {
+        isEvicted = true;
+        destroy();
     }
 
 
@@ -0,0 +1,260 @@
+package agency.v3.components.model.mvp;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import agency.v3.components.model.core.Destroyable;
+import agency.v3.components.model.helpers.AppStateMonitor;
+import agency.v3.components.model.helpers.ReferenceWatcher;
+import io.reactivex.annotations.Nullable;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * Keeps {@link Presenter}s by scope, e.g. by screen id, so that they outlive views.
+ * <p>
+ * A presenter is pinned while it's view holds it: between {@link #acquire(Object, Factory)} and {@link #release(Object)}.
+ * Up to {@code maxRetained} unpinned presenters are retained warm for fast re-entry, least recently used are
+ * evicted first: destroyed, but with their snapshots saved rather than removed, see {@link Presenter#bindSnapshot},
+ * so that they're restored when their scope is entered again, or after process death. Unpinned presenters are trimmed further when app goes to background, see {@link #monitor(AppStateMonitor)},
+ * and on memory pressure, see {@link #onLowMemory()}. Pinned presenters are only evicted by {@link #destroy()}, and
+ * finished by {@link #remove(Object)}.
+ * <p>
+ * Destroyed presenters, and views detached from presenters it's created, are passed to {@link ReferenceWatcher},
+ * if provided, to report the ones that leak.
+ */
+public class PresenterRegistry implements Destroyable {
+    private static final int DEF_MAX_RETAINED = 8;
+
+    /**
+     * Creates a presenter for a scope
+     */
+    public interface Factory<P extends Presenter<?, ?>> {
+        P create();
+    }
+
+    private final int maxRetained;
+    private final int maxRetainedInBackground;
+    @Nullable
+    private final ReferenceWatcher referenceWatcher;
+
+    /**
+     * Presenters in access order, guarded by this
+     */
+    private final LinkedHashMap<Object, Retained> presenters = new LinkedHashMap<>(16, 0.75f, /*access order*/true);
+
+    PresenterRegistry(int maxRetained, int maxRetainedInBackground, @Nullable ReferenceWatcher referenceWatcher) {
+        this.maxRetained = maxRetained;
+        this.maxRetainedInBackground = maxRetainedInBackground;
+        this.referenceWatcher = referenceWatcher;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets presenter of given scope, creating it if there's none, and pins it. Scope should identify the type of presenter as well
+     */
+    @SuppressWarnings("unchecked")
+    public <P extends Presenter<?, ?>> P acquire(Object scope, Factory<P> factory) {
+        synchronized (this) {
+            Retained retained = presenters.get(scope);
+            if (retained != null) {
+                retained.pins++;
+                return (P) retained.presenter;
+            }
+        }
+        //factory is called outside of the lock, as it may take a while, or call back into registry
+        P created = factory.create();
+        if (referenceWatcher != null) {
+            created.watchViews(referenceWatcher);
+        }
+        Presenter<?, ?> acquired;
+        synchronized (this) {
+            Retained retained = presenters.get(scope);
+            if (retained == null) {
+                retained = new Retained(created);
+                presenters.put(scope, retained);
+            }
+            retained.pins++;
+            acquired = retained.presenter;
+        }
+        if (acquired != created) {
+            //lost a race to create it, never initialized
+            created.evict();
+        }
+        return (P) acquired;
+    }
+
+    /**
+     * Unpins presenter of given scope; it stays retained until it's trimmed
+     */
+    public void release(Object scope) {
+        List<Presenter<?, ?>> evicted;
+        synchronized (this) {
+            Retained retained = presenters.get(scope);
+            if (retained == null || retained.pins == 0) {
+                throw new IllegalStateException("Presenter of scope " + scope + " is not acquired");
+            }
+            retained.pins--;
+            evicted = evict(maxRetained);
+        }
+        evict(evicted);
+    }
+
+    /**
+     * Destroys presenter of given scope, pinned or not, and removes it's snapshot, e.g. when it's screen is finished for good
+     */
+    public void remove(Object scope) {
+        Retained retained;
+        synchronized (this) {
+            retained = presenters.remove(scope);
+        }
+        if (retained != null) {
+            retained.presenter.destroy();
+            watch(retained.presenter);
+        }
+    }
+
+    /**
+     * Evicts least recently used unpinned presenters, so that no more than given number of them is retained
+     */
+    public void trim(int maxUnpinned) {
+        List<Presenter<?, ?>> evicted;
+        synchronized (this) {
+            evicted = evict(maxUnpinned);
+        }
+        evict(evicted);
+    }
+
+    /**
+     * Evicts all unpinned presenters. Call it when system reports memory pressure
+     */
+    public void onLowMemory() {
+        trim(0);
+    }
+
+    /**
+     * Trims retained presenters each time app enters background, their snapshots are saved in case the process dies
+     *
+     * @return subscription to app state, dispose it to stop trimming
+     */
+    public Disposable monitor(AppStateMonitor monitor) {
+        return monitor.monitor()
+                .filter(state -> state == AppStateMonitor.State.ENTERS_BACKGROUND)
+                .subscribe(state -> trim(maxRetainedInBackground), error -> {
+                    //app state is not monitored any more, presenters are still trimmed by their limit
+                });
+    }
+
+    /**
+     * @return number of retained presenters, pinned or not
+     */
+    public synchronized int size() {
+        return presenters.size();
+    }
+
+    /**
+     * Evicts all presenters, pinned or not
+     */
+    @Override
+    public void destroy() {
+        List<Presenter<?, ?>> evicted = new ArrayList<>();
+        synchronized (this) {
+            for (Retained retained : presenters.values()) {
+                evicted.add(retained.presenter);
+            }
+            presenters.clear();
+        }
+        evict(evicted);
+    }
+
+    private List<Presenter<?, ?>> evict(int maxUnpinned) {
+        int unpinned = 0;
+        for (Retained retained : presenters.values()) {
+            if (retained.pins == 0) {
+                unpinned++;
+            }
+        }
+        List<Presenter<?, ?>> evicted = new ArrayList<>();
+        //least recently used go first
+        for (Iterator<Retained> it = presenters.values().iterator(); it.hasNext() && unpinned > maxUnpinned; ) {
+            Retained retained = it.next();
+            if (retained.pins == 0) {
+                it.remove();
+                evicted.add(retained.presenter);
+                unpinned--;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Presenters are evicted outside of the lock, as destroy may call back into registry
+     */
+    private void evict(List<Presenter<?, ?>> evicted) {
+        for (Presenter<?, ?> presenter : evicted) {
+            presenter.evict();
+            watch(presenter);
+        }
+    }
+
+    private void watch(Presenter<?, ?> presenter) {
+        if (referenceWatcher != null) {
+            referenceWatcher.watch(presenter);
+        }
+    }
+
+    private static final class Retained {
+        final Presenter<?, ?> presenter;
+        int pins = 0;
+
+        Retained(Presenter<?, ?> presenter) {
+            this.presenter = presenter;
+        }
+    }
+
+
+    public static class Builder {
+        private int maxRetained = DEF_MAX_RETAINED;
+        private int maxRetainedInBackground = 0;
+        private ReferenceWatcher referenceWatcher = null;
+
+        public Builder() {
+
+        }
+
+        /**
+         * Max number of unpinned presenters kept warm, 8 by default
+         * */
+        public Builder maxRetained(int maxRetained) {
+            this.maxRetained = maxRetained;
+            return this;
+        }
+
+        /**
+         * Max number of unpinned presenters kept when app enters background, none by default
+         * */
+        public Builder maxRetainedInBackground(int maxRetainedInBackground) {
+            this.maxRetainedInBackground = maxRetainedInBackground;
+            return this;
+        }
+
+        /**
+         * Watcher of destroyed presenters and views detached from them, e.g. {@link agency.v3.components.model.helpers.ReferenceQueueWatcher}
+         * */
+        public Builder referenceWatcher(ReferenceWatcher referenceWatcher) {
+            this.referenceWatcher = referenceWatcher;
+            return this;
+        }
+
+        public PresenterRegistry build() {
+            if (maxRetained < 0 || maxRetainedInBackground < 0) {
+                throw new IllegalArgumentException("Should provide non-negative retention limits");
+            }
+            return new PresenterRegistry(maxRetained, maxRetainedInBackground, referenceWatcher);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package agency.v3.components.model.mvp;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import agency.v3.components.model.executors.RejectionAwareExecutor;
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.annotations.Nullable;
+
+/**
+ * Caches results of {@link Interactor} calls by request key, see
+ * {@link Interactor#applySchedulers(ResultCache, Object, Observable, io.reactivex.observers.DisposableObserver)}.
+ * <p>
+ * Keeps up to {@code maxSize} most recently used results, each for up to {@code expireAfterWrite}. A fresh result
+ * is emitted on notifier without touching the source. In stale-while-revalidate mode an expired result is emitted
+ * right away as well, and the source is called on worker in background: a result that differs from the cached
+ * one is emitted next. Callers hitting the same stale result share one refresh, which runs to completion even if
+ * they all leave, so that it's result is cached anyway. Otherwise an expired result is dropped and the source is called as if nothing was cached.
+ * <p>
+ * The last value emitted by the source is the one that gets cached.
+ */
+public class ResultCache<K, V> {
+
+    private final int maxSize;
+    private final long expireAfterWriteNanos;
+    private final boolean staleWhileRevalidate;
+
+    /**
+     * Entries in access order, guarded by this
+     */
+    private final LinkedHashMap<K, CachedResult<V>> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Background refreshes of stale results in flight
+     */
+    private final SingleFlight refreshes = new SingleFlight();
+
+    ResultCache(int maxSize, long expireAfterWriteNanos, boolean staleWhileRevalidate) {
+        this.maxSize = maxSize;
+        this.expireAfterWriteNanos = expireAfterWriteNanos;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.entries = new LinkedHashMap<K, CachedResult<V>>(16, 0.75f, /*access order*/true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CachedResult<V>> eldest) {
+                if (size() > ResultCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Serves the call from cache, calling source on worker when needed; everything is emitted on notifier
+     */
+    Observable<V> load(K key, Observable<V> source, Scheduler worker, Scheduler notifier) {
+        return Observable.defer(() -> {
+            CachedResult<V> cached = get(key);
+            if (cached != null && !isExpired(cached)) {
+                hits.incrementAndGet();
+                return Observable.just(cached.value).observeOn(notifier);
+            }
+            if (cached != null) {
+                //only kept expired in stale-while-revalidate mode
+                staleHits.incrementAndGet();
+                V stale = cached.value;
+                Observable<V> refresh = refreshes.launch(key, source.doOnNext(v -> put(key, v)), worker);
+                return Observable.just(stale)
+                        .concatWith(refresh.filter(v -> !Objects.equals(v, stale)))
+                        .observeOn(notifier);
+            }
+            misses.incrementAndGet();
+            return RejectionAwareExecutor.subscribeOn(source.doOnNext(v -> put(key, v)), worker)
+                    .observeOn(notifier);
+        });
+    }
+
+    private boolean isExpired(CachedResult<V> entry) {
+        return System.nanoTime() - entry.writtenAtNanos >= expireAfterWriteNanos;
+    }
+
+    @Nullable
+    private synchronized CachedResult<V> get(K key) {
+        CachedResult<V> entry = entries.get(key);
+        if (entry != null && !staleWhileRevalidate && isExpired(entry)) {
+            entries.remove(key);
+            evictions.incrementAndGet();
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void put(K key, V value) {
+        entries.put(key, new CachedResult<>(value, System.nanoTime()));
+    }
+
+    /**
+     * Drops cached result of given request, so that next call goes to the source
+     */
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Drops all cached results
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * @return number of cached results, including expired ones that are not dropped yet
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return a snapshot of this cache's counters
+     */
+    public Stats stats() {
+        return new Stats(hits.get(), staleHits.get(), misses.get(), evictions.get());
+    }
+
+    private static final class CachedResult<V> {
+        final V value;
+        final long writtenAtNanos;
+
+        CachedResult(V value, long writtenAtNanos) {
+            this.value = value;
+            this.writtenAtNanos = writtenAtNanos;
+        }
+    }
+
+    /**
+     * Counters of a {@link ResultCache}
+     */
+    public static final class Stats {
+        /**
+         * Calls served by a fresh result, without calling the source
+         */
+        public final long hitCount;
+        /**
+         * Calls served by an expired result, that were revalidated in background
+         */
+        public final long staleHitCount;
+        /**
+         * Calls that had nothing cached and went to the source
+         */
+        public final long missCount;
+        /**
+         * Results dropped because the cache was full or because they've expired
+         */
+        public final long evictionCount;
+
+        Stats(long hitCount, long staleHitCount, long missCount, long evictionCount) {
+            this.hitCount = hitCount;
+            this.staleHitCount = staleHitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+        }
+
+        /**
+         * @return share of calls served from cache, fresh or stale, or 0 if there were no calls
+         */
+        public double hitRate() {
+            long requests = hitCount + staleHitCount + missCount;
+            return requests == 0 ? 0 : (double) (hitCount + staleHitCount) / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + hitCount + " stale=" + staleHitCount + " misses=" + missCount + " evictions=" + evictionCount + "}";
+        }
+    }
+
+
+    public static class Builder<K, V> {
+        private int maxSize = 0;
+        private long expireAfterWriteNanos = Long.MAX_VALUE;
+        private boolean staleWhileRevalidate = false;
+
+        public Builder() {
+
+        }
+
+        /**
+         * Max number of cached results; least recently used ones are evicted first
+         * */
+        public Builder<K, V> maxSize(int maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * For how long a result stays fresh after it's been cached. Results never expire by default
+         * */
+        public Builder<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+            this.expireAfterWriteNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Whether to emit expired results right away and refresh them in background
+         * */
+        public Builder<K, V> staleWhileRevalidate(boolean staleWhileRevalidate) {
+            this.staleWhileRevalidate = staleWhileRevalidate;
+            return this;
+        }
+
+        public ResultCache<K, V> build() {
+            if (maxSize <= 0) {
+                throw new IllegalArgumentException("Should provide positive max size");
+            }
+            return new ResultCache<>(maxSize, expireAfterWriteNanos, staleWhileRevalidate);
+        }
+    }
+}
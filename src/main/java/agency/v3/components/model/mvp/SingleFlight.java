@@ -0,0 +1,77 @@
+package agency.v3.components.model.mvp;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import agency.v3.components.model.executors.RejectionAwareExecutor;
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.observables.ConnectableObservable;
+
+/**
+ * Deduplicates concurrent {@link Interactor} calls: calls with equal keys made while one of them is
+ * still in flight share one upstream subscription, and everything it emits is fanned out to all of
+ * them, including the calls that joined late. Upstream is disposed when the last caller leaves.
+ * <p>
+ * Share one instance between interactors that may request the same data, e.g. from several presenters,
+ * and pass it to {@link Interactor#applySchedulers(SingleFlight, Object, Observable, io.reactivex.observers.DisposableObserver)}.
+ * A key should identify the request completely, including the type of it's result.
+ * <p>
+ * Emissions are replayed to late callers, so this suits request-response calls rather than endless streams.
+ */
+public class SingleFlight {
+
+    private final ConcurrentHashMap<Object, Flight<?>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Joins an in-flight call with given key, or starts a new one by subscribing to source on worker
+     */
+    @SuppressWarnings("unchecked")
+    <T> Observable<T> join(Object key, Observable<T> source, Scheduler worker) {
+        Flight<T> existing = (Flight<T>) flights.get(key);
+        if (existing != null) {
+            return existing.shared;
+        }
+        Flight<T> flight = new Flight<>();
+        flight.shared = RejectionAwareExecutor.subscribeOn(source, worker)
+                //runs on completion, error, or when the last caller disposes
+                .doFinally(() -> flights.remove(key, flight))
+                .replay()
+                .refCount();
+        existing = (Flight<T>) flights.putIfAbsent(key, flight);
+        return existing != null ? existing.shared : flight.shared;
+    }
+
+    /**
+     * Same as {@link #join(Object, Observable, Scheduler)}, but a new call is started right away, and runs to
+     * completion even if every caller leaves. Late callers get what it has emitted replayed, even after it's completed
+     */
+    @SuppressWarnings("unchecked")
+    <T> Observable<T> launch(Object key, Observable<T> source, Scheduler worker) {
+        Flight<T> existing = (Flight<T>) flights.get(key);
+        if (existing != null) {
+            return existing.shared;
+        }
+        Flight<T> flight = new Flight<>();
+        ConnectableObservable<T> call = RejectionAwareExecutor.subscribeOn(source, worker)
+                .doFinally(() -> flights.remove(key, flight))
+                .replay();
+        flight.shared = call;
+        existing = (Flight<T>) flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            return existing.shared;
+        }
+        call.connect();
+        return call;
+    }
+
+    /**
+     * @return number of calls in flight
+     */
+    public int size() {
+        return flights.size();
+    }
+
+    private static final class Flight<T> {
+        volatile Observable<T> shared;
+    }
+}
@@ -0,0 +1,439 @@
+package agency.v3.components.model.mvp;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import agency.v3.components.model.core.Destroyable;
+
+/**
+ * Keeps binary snapshots of {@link Presenter}s' states in a memory-mapped file, so that after process death
+ * presenters restore their state instead of loading everything again, see
+ * {@link Presenter#bindSnapshot(SnapshotStore, String, StateCodec)}.
+ * <p>
+ * The file is an append-only log of [key][length][data] records: {@link #flush()} appends snapshots of
+ * the states marked dirty since previous flush only, and the file is compacted once most of it is overwritten records.
+ * It is opened and indexed lazily, by the first restore or write.
+ * <p>
+ * Call {@link #flush()} on the thread that owns presenters' state, e.g. when app goes to background: states are
+ * encoded right there, while the file is written and compacted on a background executor. Snapshots pending a write
+ * are restored from memory. A failed write is retried by the next one. Snapshots are written to the mapping,
+ * which survives process death, but not necessarily power loss.
+ */
+public class SnapshotStore implements Destroyable {
+    private static final int MAGIC = 0x56335353;
+    private static final int END_OFFSET = 4;
+    private static final int HEADER_SIZE = 8;
+    private static final int TOMBSTONE = -1;
+    private static final int MIN_CAPACITY = 64 * 1024;
+    private static final long IO_KEEP_ALIVE_SECONDS = 10;
+
+    /**
+     * Marks a pending removal in {@link #pending}, compared by identity
+     */
+    private static final byte[] REMOVED = new byte[0];
+
+    private final File file;
+    private final Executor io;
+
+    /**
+     * Bindings marked dirty since previous flush, by key
+     */
+    private final ConcurrentHashMap<String, Binding<?>> dirty = new ConcurrentHashMap<>();
+
+    /**
+     * Encoded snapshots and removals not written yet, by key: only the latest one of each key is kept
+     */
+    private final ConcurrentHashMap<String, byte[]> pending = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean isWriteScheduled = new AtomicBoolean();
+
+    /*everything below is guarded by this*/
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private HashMap<String, Location> index;
+    /**
+     * Where next record goes
+     */
+    private int end;
+    /**
+     * Total size of records that are not overwritten
+     */
+    private int liveBytes;
+
+    /**
+     * Writes on a daemon thread of it's own, kept while there's something to write
+     */
+    public SnapshotStore(File file) {
+        this(file, ioExecutor());
+    }
+
+    /**
+     * @param io where to write the file
+     */
+    public SnapshotStore(File file, Executor io) {
+        this.file = file;
+        this.io = io;
+    }
+
+    private static Executor ioExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, IO_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "SnapshotStore");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    <S> Binding<S> bind(String key, StateCodec<S> codec, S state) {
+        return new Binding<>(this, key, codec, state);
+    }
+
+    /**
+     * Encodes snapshots of all states marked dirty since previous flush, and appends them to the file in background
+     */
+    public void flush() {
+        for (Binding<?> binding : dirty.values()) {
+            //marking dirty again while encoding puts it back for next flush
+            if (dirty.remove(binding.key, binding)) {
+                save(binding);
+            }
+        }
+        scheduleWrite();
+    }
+
+    /**
+     * @return number of snapshots in the file, not counting pending writes
+     */
+    public synchronized int size() throws IOException {
+        open();
+        return index.size();
+    }
+
+    /**
+     * Flushes, and closes the file once written
+     */
+    @Override
+    public void destroy() {
+        flush();
+        io.execute(() -> {
+            synchronized (this) {
+                try {
+                    if (channel != null) {
+                        channel.close();
+                    }
+                } catch (IOException e) {
+                    //nothing to release then
+                }
+                //mapping is released by GC
+                channel = null;
+                buffer = null;
+                index = null;
+            }
+        });
+    }
+
+    /**
+     * Encodes a snapshot of given binding's state, to be written by next write
+     */
+    private void save(Binding<?> binding) {
+        try {
+            pending.put(binding.key, binding.encode());
+        } catch (IOException e) {
+            //state is left dirty for next flush
+            binding.markDirty();
+        }
+    }
+
+    private void saveNow(Binding<?> binding) {
+        dirty.remove(binding.key, binding);
+        save(binding);
+        scheduleWrite();
+    }
+
+    private void scheduleWrite() {
+        if (!pending.isEmpty() && isWriteScheduled.compareAndSet(false, true)) {
+            io.execute(this::write);
+        }
+    }
+
+    /**
+     * Appends pending snapshots and removals, on io executor
+     */
+    private void write() {
+        isWriteScheduled.set(false);
+        synchronized (this) {
+            try {
+                for (Map.Entry<String, byte[]> e : pending.entrySet()) {
+                    byte[] data = e.getValue();
+                    append(e.getKey(), data == REMOVED ? null : data);
+                    //a newer one, if any, stays for next write
+                    pending.remove(e.getKey(), data);
+                }
+                if (buffer != null && end > MIN_CAPACITY && liveBytes * 2 < end - HEADER_SIZE) {
+                    compact();
+                }
+            } catch (IOException e) {
+                //what's not written stays pending, and is retried by next write
+            }
+        }
+    }
+
+    private boolean restore(Binding<?> binding) {
+        byte[] data = pending.get(binding.key);
+        if (data == REMOVED) {
+            return false;
+        }
+        if (data == null) {
+            synchronized (this) {
+                try {
+                    open();
+                } catch (IOException e) {
+                    return false;
+                }
+                Location location = index.get(binding.key);
+                if (location == null) {
+                    return false;
+                }
+                data = new byte[location.length];
+                ByteBuffer source = buffer.duplicate();
+                source.position(location.dataAt);
+                source.get(data);
+            }
+        }
+        try {
+            binding.decode(data);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void remove(String key) {
+        dirty.remove(key);
+        //written as a tombstone, if the file has a snapshot of this key
+        pending.put(key, REMOVED);
+        scheduleWrite();
+    }
+
+    private void open() throws IOException {
+        if (buffer != null) {
+            return;
+        }
+        channel = new RandomAccessFile(file, "rw").getChannel();
+        long size = channel.size();
+        index = new HashMap<>();
+        liveBytes = 0;
+        if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+            reset();
+            return;
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, MIN_CAPACITY));
+        int storedEnd = buffer.getInt(END_OFFSET);
+        if (buffer.getInt(0) != MAGIC || storedEnd < HEADER_SIZE || storedEnd > size) {
+            reset();
+            return;
+        }
+        int at = HEADER_SIZE;
+        while (at + 4 <= storedEnd) {
+            int keyLength = buffer.getInt(at);
+            int lengthAt = at + 4 + keyLength;
+            if (keyLength < 0 || lengthAt + 4 > storedEnd) {
+                break;
+            }
+            int length = buffer.getInt(lengthAt);
+            int dataAt = lengthAt + 4;
+            if (length < TOMBSTONE || dataAt + Math.max(length, 0) > storedEnd) {
+                break;
+            }
+            byte[] key = new byte[keyLength];
+            ByteBuffer source = buffer.duplicate();
+            source.position(at + 4);
+            source.get(key);
+            index(new String(key, StandardCharsets.UTF_8), keyLength, length == TOMBSTONE ? null : new Location(dataAt, length));
+            at = dataAt + Math.max(length, 0);
+        }
+        //drops a torn record, if any
+        setEnd(at);
+    }
+
+    private void reset() throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, MIN_CAPACITY);
+        buffer.putInt(0, MAGIC);
+        setEnd(HEADER_SIZE);
+    }
+
+    private void setEnd(int end) {
+        this.end = end;
+        buffer.putInt(END_OFFSET, end);
+    }
+
+    private void append(String key, byte[] data) throws IOException {
+        open();
+        if (data == null && !index.containsKey(key)) {
+            return;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int length = data == null ? TOMBSTONE : data.length;
+        int recordSize = 8 + keyBytes.length + Math.max(length, 0);
+        if (end + recordSize > buffer.capacity()) {
+            if ((long) end + recordSize > Integer.MAX_VALUE / 2) {
+                throw new IOException("Snapshot file is too large");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityFor(end + recordSize));
+        }
+        int at = end;
+        buffer.position(at);
+        buffer.putInt(keyBytes.length);
+        buffer.put(keyBytes);
+        buffer.putInt(length);
+        if (data != null) {
+            buffer.put(data);
+        }
+        index(key, keyBytes.length, data == null ? null : new Location(at + 8 + keyBytes.length, length));
+        //header goes last, so that a torn record is never read
+        setEnd(at + recordSize);
+    }
+
+    private void index(String key, int keyLength, Location location) {
+        Location previous = location == null ? index.remove(key) : index.put(key, location);
+        if (previous != null) {
+            liveBytes -= 8 + keyLength + previous.length;
+        }
+        if (location != null) {
+            liveBytes += 8 + keyLength + location.length;
+        }
+    }
+
+    /**
+     * Rewrites live records into a new file and replaces current one with it
+     */
+    private void compact() throws IOException {
+        File compacted = new File(file.getPath() + ".compact");
+        int capacity = capacityFor(HEADER_SIZE + liveBytes);
+        HashMap<String, Location> compactedIndex = new HashMap<>();
+        int compactedEnd;
+        try (RandomAccessFile compactedFile = new RandomAccessFile(compacted, "rw")) {
+            compactedFile.setLength(0);
+            FileChannel out = compactedFile.getChannel();
+            MappedByteBuffer target = out.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            target.putInt(MAGIC);
+            target.putInt(HEADER_SIZE);
+            for (Map.Entry<String, Location> e : index.entrySet()) {
+                byte[] keyBytes = e.getKey().getBytes(StandardCharsets.UTF_8);
+                Location location = e.getValue();
+                target.putInt(keyBytes.length);
+                target.put(keyBytes);
+                target.putInt(location.length);
+                compactedIndex.put(e.getKey(), new Location(target.position(), location.length));
+                ByteBuffer data = buffer.duplicate();
+                data.limit(location.dataAt + location.length);
+                data.position(location.dataAt);
+                target.put(data);
+            }
+            compactedEnd = target.position();
+            target.putInt(END_OFFSET, compactedEnd);
+            target.force();
+        }
+        channel.close();
+        //rename within a directory replaces the file atomically
+        if (!compacted.renameTo(file)) {
+            //current file is intact, reopened by next access
+            buffer = null;
+            throw new IOException("Could not replace " + file + " with compacted one");
+        }
+        channel = new RandomAccessFile(file, "rw").getChannel();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        index = compactedIndex;
+        end = compactedEnd;
+    }
+
+    private static int capacityFor(int size) {
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(size) << 1);
+    }
+
+    private static final class Location {
+        final int dataAt;
+        final int length;
+
+        Location(int dataAt, int length) {
+            this.dataAt = dataAt;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Connects a state to it's snapshot in store
+     */
+    static final class Binding<S> {
+        private final SnapshotStore store;
+        private final String key;
+        private final StateCodec<S> codec;
+        private final S state;
+
+        Binding(SnapshotStore store, String key, StateCodec<S> codec, S state) {
+            this.store = store;
+            this.key = key;
+            this.codec = codec;
+            this.state = state;
+        }
+
+        /**
+         * Snapshot of the state will be written on next flush
+         */
+        void markDirty() {
+            store.dirty.put(key, this);
+        }
+
+        /**
+         * @return whether the state is restored from a snapshot
+         */
+        boolean restore() {
+            return store.restore(this);
+        }
+
+        /**
+         * Saves a snapshot of the state right away, rather than on next flush
+         */
+        void save() {
+            store.saveNow(this);
+        }
+
+        /**
+         * Removes the snapshot
+         */
+        void remove() {
+            store.remove(key);
+        }
+
+        private byte[] encode() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            codec.write(state, out);
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        private void decode(byte[] data) throws IOException {
+            codec.read(new DataInputStream(new ByteArrayInputStream(data)), state);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package agency.v3.components.model.mvp;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes {@link Presenter}'s state into a compact binary snapshot and reads it back, see {@link SnapshotStore}
+ */
+public interface StateCodec<S> {
+
+    /**
+     * Writes given state
+     */
+    void write(S state, DataOutput out) throws IOException;
+
+    /**
+     * Reads a snapshot into given state. Read everything first and apply it last, so that a broken
+     * snapshot leaves the state untouched
+     */
+    void read(DataInput in, S state) throws IOException;
+}
@@ -0,0 +1,48 @@
+package agency.v3.components.model.resolvers;
+
+/**
+ * Caches colors resolved by decorated {@link ColorResolver}, keyed by resource id with no boxing.
+ * Call {@link #invalidate()} on configuration change, e.g. when night mode is switched. Thread safe
+ */
+public class CachingColorResolver implements ColorResolver {
+
+    private final ColorResolver delegate;
+
+    /*guarded by this*/
+    private final IntIntTable colors = new IntIntTable();
+    /**
+     * Incremented by invalidation, so that colors resolved before it are not cached after it
+     */
+    private int generation = 0;
+
+    public CachingColorResolver(ColorResolver delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int getColor(int resId) {
+        int resolvedIn;
+        synchronized (this) {
+            int slot = colors.indexOf(resId);
+            if (slot >= 0) {
+                return colors.valueAt(slot);
+            }
+            resolvedIn = generation;
+        }
+        int color = delegate.getColor(resId);
+        synchronized (this) {
+            if (resolvedIn == generation) {
+                colors.put(resId, color);
+            }
+        }
+        return color;
+    }
+
+    /**
+     * Drops all cached colors
+     */
+    public synchronized void invalidate() {
+        colors.clear();
+        generation++;
+    }
+}
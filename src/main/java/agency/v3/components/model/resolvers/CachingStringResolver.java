@@ -0,0 +1,137 @@
+package agency.v3.components.model.resolvers;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Caches strings resolved by decorated {@link StringResolver}: plain strings keyed by resource id with no boxing,
+ * and up to {@code maxFormatted} most recently used formatted strings keyed by resource id and arguments.
+ * Format arguments should be immutable values, e.g. numbers or strings, as they're compared by equals.
+ * <p>
+ * Cache is dropped when default {@link Locale} changes; call {@link #invalidate()} on other configuration changes. Thread safe
+ */
+public class CachingStringResolver implements StringResolver {
+    private static final int DEF_MAX_FORMATTED = 256;
+
+    private final StringResolver delegate;
+    private final int maxFormatted;
+
+    /*guarded by this*/
+    private final IntObjectTable<String> strings = new IntObjectTable<>();
+    private final LinkedHashMap<FormatKey, String> formatted;
+    private Locale locale = Locale.getDefault();
+    /**
+     * Incremented by invalidation, so that strings resolved before it are not cached after it
+     */
+    private int generation = 0;
+
+    public CachingStringResolver(StringResolver delegate) {
+        this(delegate, DEF_MAX_FORMATTED);
+    }
+
+    /**
+     * @param maxFormatted max number of formatted strings cached
+     */
+    public CachingStringResolver(StringResolver delegate, int maxFormatted) {
+        if (maxFormatted < 0) {
+            throw new IllegalArgumentException("maxFormatted should not be negative, was " + maxFormatted);
+        }
+        this.delegate = delegate;
+        this.maxFormatted = maxFormatted;
+        this.formatted = new LinkedHashMap<FormatKey, String>(16, 0.75f, /*access order*/true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<FormatKey, String> eldest) {
+                return size() > CachingStringResolver.this.maxFormatted;
+            }
+        };
+    }
+
+    @Override
+    public String getString(int resId) {
+        int resolvedIn;
+        synchronized (this) {
+            checkLocale();
+            String cached = strings.get(resId);
+            if (cached != null) {
+                return cached;
+            }
+            resolvedIn = generation;
+        }
+        String string = delegate.getString(resId);
+        synchronized (this) {
+            if (string != null && resolvedIn == generation) {
+                strings.put(resId, string);
+            }
+        }
+        return string;
+    }
+
+    @Override
+    public String getString(int resId, Object... args) {
+        if (maxFormatted == 0 || args == null) {
+            return delegate.getString(resId, args);
+        }
+        int resolvedIn;
+        FormatKey key = new FormatKey(resId, args);
+        synchronized (this) {
+            checkLocale();
+            String cached = formatted.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            resolvedIn = generation;
+        }
+        String string = delegate.getString(resId, args);
+        synchronized (this) {
+            if (string != null && resolvedIn == generation) {
+                //caller may reuse it's array
+                formatted.put(new FormatKey(resId, args.clone()), string);
+            }
+        }
+        return string;
+    }
+
+    /**
+     * Drops all cached strings
+     */
+    public synchronized void invalidate() {
+        strings.clear();
+        formatted.clear();
+        generation++;
+    }
+
+    private void checkLocale() {
+        Locale current = Locale.getDefault();
+        if (!current.equals(locale)) {
+            locale = current;
+            invalidate();
+        }
+    }
+
+    private static final class FormatKey {
+        private final int resId;
+        private final Object[] args;
+        private final int hash;
+
+        FormatKey(int resId, Object[] args) {
+            this.resId = resId;
+            this.args = args;
+            this.hash = 31 * resId + Arrays.hashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof FormatKey)) return false;
+            FormatKey that = (FormatKey) o;
+            return resId == that.resId && Arrays.equals(args, that.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
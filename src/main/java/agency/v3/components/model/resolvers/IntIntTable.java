@@ -0,0 +1,86 @@
+package agency.v3.components.model.resolvers;
+
+import java.util.Arrays;
+
+import agency.v3.components.model.helpers.Hashing;
+
+/**
+ * An int to int open-addressing hash table with linear probing, that stores keys and values unboxed.
+ * Entries are never removed one by one, only cleared all at once. <b>Not thread safe</b>
+ */
+final class IntIntTable {
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size = 0;
+
+    IntIntTable() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * @return slot of given key, or -1 if there's none
+     */
+    int indexOf(int key) {
+        int mask = keys.length - 1;
+        for (int i = Hashing.mix(key) & mask; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    int valueAt(int slot) {
+        return values[slot];
+    }
+
+    void put(int key, int value) {
+        int mask = keys.length - 1;
+        int i = Hashing.mix(key) & mask;
+        while (used[i]) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        used[i] = true;
+        keys[i] = key;
+        values[i] = value;
+        //kept at most half full, so that probes stay short
+        if (++size > keys.length >> 1) {
+            rehash();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length << 1);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+    }
+}
@@ -0,0 +1,81 @@
+package agency.v3.components.model.resolvers;
+
+import java.util.Arrays;
+
+import agency.v3.components.model.helpers.Hashing;
+
+/**
+ * An int to object open-addressing hash table with linear probing, that stores keys unboxed. Null values
+ * are not allowed, null marks a free slot. Entries are never removed one by one, only cleared all at once.
+ * <b>Not thread safe</b>
+ */
+final class IntObjectTable<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int size = 0;
+
+    IntObjectTable() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * @return value of given key, or null if there's none
+     */
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        int mask = keys.length - 1;
+        for (int i = Hashing.mix(key) & mask; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    void put(int key, V value) {
+        int mask = keys.length - 1;
+        int i = Hashing.mix(key) & mask;
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        //kept at most half full, so that probes stay short
+        if (++size > keys.length >> 1) {
+            rehash();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rehash() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                put(oldKeys[i], (V) oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+}
@@ -0,0 +1,89 @@
+package agency.v3.components.model.retry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A circuit breaker of one endpoint. It opens after a number of consecutive failures, and while it's open calls
+ * fail fast with {@link CircuitOpenException} instead of hitting the endpoint. Once open duration elapses, one probe
+ * call is let through: it's success closes the breaker, and it's failure opens it again. Thread safe
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    /*guarded by this*/
+    private State state = State.CLOSED;
+    private int failures = 0;
+    private long openedAtNanos;
+    private boolean isProbing = false;
+
+    /**
+     * @param failureThreshold number of consecutive failures that opens the breaker
+     * @param openDuration     for how long breaker stays open before a probe
+     */
+    public CircuitBreaker(int failureThreshold, long openDuration, TimeUnit unit) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("failureThreshold should be positive, was " + failureThreshold);
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = unit.toNanos(openDuration);
+    }
+
+    /**
+     * @return whether a call may go to the endpoint now. A call that's let through must report
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #onCancel()}
+     */
+    public synchronized boolean allowRequest() {
+        switch (state) {
+            case OPEN:
+                if (System.nanoTime() - openedAtNanos < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                isProbing = true;
+                return true;
+            case HALF_OPEN:
+                if (isProbing) {
+                    return false;
+                }
+                isProbing = true;
+                return true;
+            case CLOSED:
+            default:
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+        isProbing = false;
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+            isProbing = false;
+        }
+    }
+
+    /**
+     * Call ended without telling endpoint's health: it was disposed before it's result was known,
+     * or failed with an error that's not retried
+     */
+    public synchronized void onCancel() {
+        isProbing = false;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+}
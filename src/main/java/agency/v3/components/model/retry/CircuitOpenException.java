@@ -0,0 +1,12 @@
+package agency.v3.components.model.retry;
+
+/**
+ * A call failed fast, as the circuit breaker of it's endpoint is open
+ */
+public class CircuitOpenException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String endpoint) {
+        super("Circuit of " + endpoint + " is open");
+    }
+}
@@ -0,0 +1,30 @@
+package agency.v3.components.model.retry;
+
+import agency.v3.components.model.entity.ErrorWithRecovery;
+import io.reactivex.annotations.Nullable;
+
+/**
+ * A call failed, and automatic recovery is exhausted: attempts or retry budget are spent, error is not
+ * retryable, or circuit is open. Carries the {@link ErrorWithRecovery} to show to the user
+ */
+public class RecoveryExhaustedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Not serializable, so it's not kept when exception is serialized
+     */
+    private final transient ErrorWithRecovery errorWithRecovery;
+
+    public RecoveryExhaustedException(ErrorWithRecovery errorWithRecovery) {
+        super(errorWithRecovery.reason(), errorWithRecovery.reasonThrowable());
+        this.errorWithRecovery = errorWithRecovery;
+    }
+
+    /**
+     * @return error to show to the user, null if this exception has been deserialized
+     */
+    @Nullable
+    public ErrorWithRecovery errorWithRecovery() {
+        return errorWithRecovery;
+    }
+}
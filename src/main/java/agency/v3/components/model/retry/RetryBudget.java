@@ -0,0 +1,50 @@
+package agency.v3.components.model.retry;
+
+/**
+ * A token bucket that bounds the rate of retries across all calls sharing it: each retry takes a token,
+ * and tokens refill at a fixed rate up to the bucket's capacity. When a backend goes down, calls fail
+ * right away once budget is spent, instead of piling retries up in worker queue. Thread safe
+ */
+public final class RetryBudget {
+
+    private final double capacity;
+    private final double tokensPerNano;
+
+    /*guarded by this*/
+    private double tokens;
+    private long refilledAtNanos = System.nanoTime();
+
+    /**
+     * @param maxRetries      max number of retries in a burst
+     * @param retriesPerSecond rate at which budget refills
+     */
+    public RetryBudget(int maxRetries, double retriesPerSecond) {
+        if (maxRetries <= 0 || retriesPerSecond <= 0) {
+            throw new IllegalArgumentException("Should provide positive burst and rate of retries");
+        }
+        this.capacity = maxRetries;
+        this.tokensPerNano = retriesPerSecond / 1e9;
+        this.tokens = maxRetries;
+    }
+
+    /**
+     * @return whether there's budget for one more retry, taking it if so
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAtNanos) * tokensPerNano);
+        refilledAtNanos = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * @return number of retries available right now
+     */
+    public synchronized int available() {
+        return (int) Math.min(capacity, tokens + (System.nanoTime() - refilledAtNanos) * tokensPerNano);
+    }
+}
@@ -0,0 +1,175 @@
+package agency.v3.components.model.retry;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import agency.v3.components.model.core.Consumer0;
+import agency.v3.components.model.entity.ErrorWithRecovery;
+import io.reactivex.Observable;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Scheduler;
+import io.reactivex.annotations.Nullable;
+
+/**
+ * Recovers failed calls automatically: retries them by {@link RetryPolicy}, within shared {@link RetryBudget} if any,
+ * and fails calls of an endpoint fast while it's {@link CircuitBreaker} is open. Only when automatic recovery is
+ * exhausted a call fails with {@link RecoveryExhaustedException}, carrying an {@link ErrorWithRecovery} for the user.
+ * <p>
+ * Share one instance app-wide, and apply it to {@link agency.v3.components.model.mvp.Interactor} calls with
+ * {@link #retrying(String, Scheduler, Consumer0)}. Attempt counter resets once a call emits.
+ */
+public class RetryEngine {
+    private static final int DEF_FAILURE_THRESHOLD = 5;
+    private static final long DEF_OPEN_MILLIS = 30000;
+
+    private final RetryPolicy policy;
+    @Nullable
+    private final RetryBudget budget;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private final ConcurrentHashMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    RetryEngine(RetryPolicy policy, @Nullable RetryBudget budget, int failureThreshold, long openMillis) {
+        this.policy = policy;
+        this.budget = budget;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return circuit breaker of given endpoint
+     */
+    public CircuitBreaker circuitBreaker(String endpoint) {
+        CircuitBreaker breaker = breakers.get(endpoint);
+        if (breaker == null) {
+            breaker = new CircuitBreaker(failureThreshold, openMillis, TimeUnit.MILLISECONDS);
+            CircuitBreaker existing = breakers.putIfAbsent(endpoint, breaker);
+            if (existing != null) {
+                breaker = existing;
+            }
+        }
+        return breaker;
+    }
+
+    /**
+     * Retries calls to given endpoint
+     *
+     * @param scheduler where to wait between attempts and resubscribe, e.g. interactor's worker
+     * @param recovery  what user's "retry" should do once automatic recovery is exhausted
+     */
+    public <T> ObservableTransformer<T, T> retrying(String endpoint, Scheduler scheduler, @Nullable Consumer0 recovery) {
+        CircuitBreaker breaker = circuitBreaker(endpoint);
+        return upstream -> Observable.defer(() -> {
+            //per subscription, accessed serially: attempts are sequential
+            int[] retries = {0};
+            Observable<T> attempt = Observable.defer(() -> {
+                if (!breaker.allowRequest()) {
+                    return Observable.<T>error(new CircuitOpenException(endpoint));
+                }
+                boolean[] isReported = {false};
+                return upstream
+                        .doOnNext(item -> {
+                            retries[0] = 0;
+                            if (!isReported[0]) {
+                                isReported[0] = true;
+                                breaker.onSuccess();
+                            }
+                        })
+                        .doOnComplete(() -> {
+                            if (!isReported[0]) {
+                                isReported[0] = true;
+                                breaker.onSuccess();
+                            }
+                        })
+                        .doOnError(error -> {
+                            if (!isReported[0]) {
+                                isReported[0] = true;
+                                //an error that's not retried says nothing of endpoint's health, e.g. a rejected request
+                                if (policy.isRetryable(error)) {
+                                    breaker.onFailure();
+                                } else {
+                                    breaker.onCancel();
+                                }
+                            }
+                        })
+                        .doOnDispose(() -> {
+                            if (!isReported[0]) {
+                                isReported[0] = true;
+                                breaker.onCancel();
+                            }
+                        });
+            });
+            return attempt.retryWhen(errors -> errors.flatMap(error -> {
+                int retry = ++retries[0];
+                if (error instanceof CircuitOpenException
+                        || retry >= policy.maxAttempts
+                        || !policy.isRetryable(error)
+                        || (budget != null && !budget.tryAcquire())) {
+                    return Observable.error(exhausted(error, recovery));
+                }
+                return Observable.timer(policy.delayMillis(retry), TimeUnit.MILLISECONDS, scheduler);
+            }));
+        });
+    }
+
+    private static RecoveryExhaustedException exhausted(Throwable error, @Nullable Consumer0 recovery) {
+        String message = error.getMessage();
+        return new RecoveryExhaustedException(ErrorWithRecovery.builder()
+                .reasonThrowable(error)
+                .reason(message != null ? message : error.getClass().getSimpleName())
+                .recovery(recovery)
+                .build());
+    }
+
+
+    public static class Builder {
+        private RetryPolicy policy = RetryPolicy.defaults();
+        private RetryBudget budget = null;
+        private int failureThreshold = DEF_FAILURE_THRESHOLD;
+        private long openMillis = DEF_OPEN_MILLIS;
+
+        public Builder() {
+
+        }
+
+        /**
+         * When and how soon to retry, {@link RetryPolicy#defaults()} by default
+         * */
+        public Builder policy(RetryPolicy policy) {
+            this.policy = policy;
+            return this;
+        }
+
+        /**
+         * Budget shared by retries of all endpoints. Retries are bounded by policy only by default
+         * */
+        public Builder budget(RetryBudget budget) {
+            this.budget = budget;
+            return this;
+        }
+
+        /**
+         * Circuit breakers open after 5 consecutive failures for 30s by default
+         * */
+        public Builder circuitBreaker(int failureThreshold, long openDuration, TimeUnit unit) {
+            this.failureThreshold = failureThreshold;
+            this.openMillis = unit.toMillis(openDuration);
+            return this;
+        }
+
+        public RetryEngine build() {
+            if (policy == null) {
+                throw new IllegalArgumentException("Should provide retry policy");
+            }
+            if (failureThreshold <= 0 || openMillis < 0) {
+                throw new IllegalArgumentException("Should provide positive failure threshold, and non-negative open duration");
+            }
+            return new RetryEngine(policy, budget, failureThreshold, openMillis);
+        }
+    }
+}
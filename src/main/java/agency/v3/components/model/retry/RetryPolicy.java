@@ -0,0 +1,108 @@
+package agency.v3.components.model.retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.functions.Predicate;
+
+/**
+ * When and how soon to retry a failed call: exponential backoff with full jitter, so that clients
+ * that failed at once do not retry at once. Delay before n-th retry is random within
+ * {@code [0, min(maxDelay, baseDelay * 2^(n-1))]}
+ */
+public final class RetryPolicy {
+    private static final int DEF_MAX_ATTEMPTS = 3;
+    private static final long DEF_BASE_DELAY_MILLIS = 200;
+    private static final long DEF_MAX_DELAY_MILLIS = 10000;
+
+    final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final Predicate<Throwable> retryOn;
+
+    RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis, Predicate<Throwable> retryOn) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.retryOn = retryOn;
+    }
+
+    /**
+     * @return 3 attempts, with delays based on 200ms and up to 10s, on any error
+     */
+    public static RetryPolicy defaults() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param retry number of retry, starting from 1
+     */
+    long delayMillis(int retry) {
+        //shift is capped, so that it does not overflow
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(retry - 1, 30));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    boolean isRetryable(Throwable error) {
+        try {
+            return retryOn.test(error);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+
+    public static class Builder {
+        private int maxAttempts = DEF_MAX_ATTEMPTS;
+        private long baseDelayMillis = DEF_BASE_DELAY_MILLIS;
+        private long maxDelayMillis = DEF_MAX_DELAY_MILLIS;
+        private Predicate<Throwable> retryOn = error -> true;
+
+        public Builder() {
+
+        }
+
+        /**
+         * Max number of attempts including the first one, 3 by default
+         * */
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Delay that backoff starts from, 200ms by default
+         * */
+        public Builder baseDelay(long delay, TimeUnit unit) {
+            this.baseDelayMillis = unit.toMillis(delay);
+            return this;
+        }
+
+        /**
+         * Max delay between attempts, 10s by default
+         * */
+        public Builder maxDelay(long delay, TimeUnit unit) {
+            this.maxDelayMillis = unit.toMillis(delay);
+            return this;
+        }
+
+        /**
+         * Which errors are worth retrying, all by default
+         * */
+        public Builder retryOn(Predicate<Throwable> retryOn) {
+            this.retryOn = retryOn;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            if (maxAttempts <= 0 || baseDelayMillis < 0 || maxDelayMillis < baseDelayMillis) {
+                throw new IllegalArgumentException("Should provide positive max attempts, and non-negative delays, base <= max");
+            }
+            return new RetryPolicy(maxAttempts, baseDelayMillis, maxDelayMillis, retryOn);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package agency.v3.components.model.tracing;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the most recent spans in a lock-free ring buffer, overwriting the oldest ones, so that they
+ * could be dumped to a file, e.g. along with a bug report
+ */
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final AtomicReferenceArray<Span> spans;
+    private final int mask;
+    private final AtomicLong written = new AtomicLong();
+
+    /**
+     * @param capacity number of spans kept, rounded up to a power of two
+     */
+    public InMemorySpanExporter(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity should be within (0, 2^30], was " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.spans = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    @Override
+    public void export(Span span) {
+        spans.set((int) (written.getAndIncrement() & mask), span);
+    }
+
+    /**
+     * @return kept spans, oldest first. Spans exported concurrently may or may not be included
+     */
+    public List<Span> snapshot() {
+        long end = written.get();
+        long start = Math.max(0, end - spans.length());
+        List<Span> result = new ArrayList<>((int) (end - start));
+        for (long i = start; i < end; i++) {
+            Span span = spans.get((int) (i & mask));
+            if (span != null) {
+                result.add(span);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes kept spans to a file, one per line: trace id, span id, parent span id, name, kind, scheduler, thread, start and duration in nanos
+     */
+    public void dumpTo(File file) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            for (Span span : snapshot()) {
+                writer.write(span.toString());
+                writer.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package agency.v3.components.model.tracing;
+
+/**
+ * A finished span of a traced call. Times are in {@link System#nanoTime()} terms
+ */
+public final class Span {
+
+    public enum Kind {
+        /**
+         * Job waited for a thread of a scheduler
+         */
+        QUEUE_WAIT,
+        /**
+         * Job ran on worker
+         */
+        EXECUTION,
+        /**
+         * Result was delivered on notifier
+         */
+        DELIVERY
+    }
+
+    public final long traceId;
+    public final long spanId;
+    public final long parentSpanId;
+    /**
+     * Name of the traced call
+     */
+    public final String name;
+    public final Kind kind;
+    /**
+     * Name of the scheduler
+     */
+    public final String scheduler;
+    public final String thread;
+    public final long startNanos;
+    public final long durationNanos;
+
+    Span(long traceId, long spanId, long parentSpanId, String name, Kind kind, String scheduler, String thread, long startNanos, long durationNanos) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.kind = kind;
+        this.scheduler = scheduler;
+        this.thread = thread;
+        this.startNanos = startNanos;
+        this.durationNanos = durationNanos;
+    }
+
+    @Override
+    public String toString() {
+        return Long.toHexString(traceId) + " " + Long.toHexString(spanId) + " " + Long.toHexString(parentSpanId)
+                + " " + name + " " + kind + " " + scheduler + " " + thread + " " + startNanos + " " + durationNanos;
+    }
+}
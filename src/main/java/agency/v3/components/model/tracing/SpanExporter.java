@@ -0,0 +1,8 @@
+package agency.v3.components.model.tracing;
+
+/**
+ * Receives finished spans, from any thread. Should be cheap and thread safe, as it's called on every traced hop
+ */
+public interface SpanExporter {
+    void export(Span span);
+}
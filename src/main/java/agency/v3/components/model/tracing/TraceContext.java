@@ -0,0 +1,107 @@
+package agency.v3.components.model.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.reactivex.annotations.Nullable;
+
+/**
+ * Identifies a traced call and the span within it. Current context is kept in a thread local, and is carried
+ * across scheduler hops by {@link TracingScheduler}, so that work done on worker and delivery on notifier
+ * are attributed to the call that caused them.
+ * <pre>
+ * TraceContext.Scope scope = TraceContext.start("loadFeed").makeCurrent();
+ * try {
+ *     interactor.loadFeed(observer);
+ * } finally {
+ *     scope.close();
+ * }
+ * </pre>
+ */
+public final class TraceContext {
+
+    private static final ThreadLocal<TraceContext> CURRENT = new ThreadLocal<>();
+
+    public final long traceId;
+    public final long spanId;
+    /**
+     * 0 for the root span of a trace
+     */
+    public final long parentSpanId;
+    public final String name;
+
+    private TraceContext(long traceId, long spanId, long parentSpanId, String name) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+    }
+
+    /**
+     * @return context current on this thread, or null if nothing is traced
+     */
+    @Nullable
+    public static TraceContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Starts a span: a child of current context, or a new trace if there's none. It's not current until {@link #makeCurrent()}
+     */
+    public static TraceContext start(String name) {
+        TraceContext parent = CURRENT.get();
+        return parent != null ? parent.child(name) : new TraceContext(newId(), newId(), 0, name);
+    }
+
+    /**
+     * @return a child span of this context
+     */
+    public TraceContext child(String name) {
+        return new TraceContext(traceId, newId(), spanId, name);
+    }
+
+    /**
+     * Makes this context current on this thread, until returned scope is closed
+     */
+    public Scope makeCurrent() {
+        return new Scope(swap(this));
+    }
+
+    /**
+     * @return previous context
+     */
+    static TraceContext swap(@Nullable TraceContext context) {
+        TraceContext previous = CURRENT.get();
+        CURRENT.set(context);
+        return previous;
+    }
+
+    static long newId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "TraceContext{" + Long.toHexString(traceId) + " " + Long.toHexString(spanId) + " " + name + "}";
+    }
+
+    /**
+     * Restores previous context when closed
+     */
+    public static final class Scope implements AutoCloseable {
+        @Nullable
+        private final TraceContext previous;
+
+        Scope(@Nullable TraceContext previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            CURRENT.set(previous);
+        }
+    }
+}
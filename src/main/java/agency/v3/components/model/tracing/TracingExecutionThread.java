@@ -0,0 +1,21 @@
+package agency.v3.components.model.tracing;
+
+import agency.v3.components.model.executors.ExecutionThread;
+import io.reactivex.Scheduler;
+
+/**
+ * Decorates an {@link ExecutionThread}, so that traced jobs record {@link Span.Kind#EXECUTION} spans
+ */
+public class TracingExecutionThread implements ExecutionThread {
+
+    private final Scheduler scheduler;
+
+    public TracingExecutionThread(ExecutionThread delegate, SpanExporter exporter) {
+        this.scheduler = new TracingScheduler(delegate.getScheduler(), exporter, "worker", Span.Kind.EXECUTION);
+    }
+
+    @Override
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+}
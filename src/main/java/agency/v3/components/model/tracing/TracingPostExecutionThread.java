@@ -0,0 +1,21 @@
+package agency.v3.components.model.tracing;
+
+import agency.v3.components.model.executors.PostExecutionThread;
+import io.reactivex.Scheduler;
+
+/**
+ * Decorates a {@link PostExecutionThread}, so that traced deliveries record {@link Span.Kind#DELIVERY} spans
+ */
+public class TracingPostExecutionThread implements PostExecutionThread {
+
+    private final Scheduler scheduler;
+
+    public TracingPostExecutionThread(PostExecutionThread delegate, SpanExporter exporter) {
+        this.scheduler = new TracingScheduler(delegate.getScheduler(), exporter, "notifier", Span.Kind.DELIVERY);
+    }
+
+    @Override
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+}
@@ -0,0 +1,128 @@
+package agency.v3.components.model.tracing;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Scheduler;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * Decorates a {@link Scheduler}, so that {@link TraceContext} current when a job is scheduled is current while it runs.
+ * For each traced job records how long it waited for a thread, and how long it ran. Jobs scheduled with no current
+ * context are passed through as is
+ */
+public class TracingScheduler extends Scheduler {
+
+    private final Scheduler delegate;
+    private final SpanExporter exporter;
+    private final String name;
+    private final Span.Kind kind;
+
+    /**
+     * @param name name of the scheduler, as it appears in spans
+     * @param kind what running a job on this scheduler is, e.g. {@link Span.Kind#EXECUTION} for worker
+     */
+    public TracingScheduler(Scheduler delegate, SpanExporter exporter, String name, Span.Kind kind) {
+        if (kind == Span.Kind.QUEUE_WAIT) {
+            throw new IllegalArgumentException("Queue wait is recorded for any kind of scheduler");
+        }
+        this.delegate = delegate;
+        this.exporter = exporter;
+        this.name = name;
+        this.kind = kind;
+    }
+
+    @NonNull
+    @Override
+    public Worker createWorker() {
+        return new TracingWorker(delegate.createWorker());
+    }
+
+    @NonNull
+    @Override
+    public Disposable scheduleDirect(@NonNull Runnable run, long delay, @NonNull TimeUnit unit) {
+        return delegate.scheduleDirect(wrap(run, unit.toNanos(delay)), delay, unit);
+    }
+
+    @Override
+    public long now(@NonNull TimeUnit unit) {
+        return delegate.now(unit);
+    }
+
+    @Override
+    public void start() {
+        delegate.start();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    private Runnable wrap(Runnable run, long delayNanos) {
+        TraceContext context = TraceContext.current();
+        return context == null ? run : new TracedRunnable(run, context, Math.max(0, delayNanos));
+    }
+
+    private final class TracingWorker extends Worker {
+        private final Worker worker;
+
+        TracingWorker(Worker worker) {
+            this.worker = worker;
+        }
+
+        @NonNull
+        @Override
+        public Disposable schedule(@NonNull Runnable run, long delay, @NonNull TimeUnit unit) {
+            return worker.schedule(wrap(run, unit.toNanos(delay)), delay, unit);
+        }
+
+        @Override
+        public long now(@NonNull TimeUnit unit) {
+            return worker.now(unit);
+        }
+
+        @Override
+        public void dispose() {
+            worker.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return worker.isDisposed();
+        }
+    }
+
+    private final class TracedRunnable implements Runnable {
+        private final Runnable run;
+        private final TraceContext context;
+        /**
+         * When job was due to run: queue wait doesn't include requested delay
+         */
+        private final long dueNanos;
+
+        TracedRunnable(Runnable run, TraceContext context, long delayNanos) {
+            this.run = run;
+            this.context = context;
+            this.dueNanos = System.nanoTime() + delayNanos;
+        }
+
+        @Override
+        public void run() {
+            TraceContext hop = context.child(context.name);
+            String thread = Thread.currentThread().getName();
+            long startedAt = System.nanoTime();
+            exporter.export(new Span(context.traceId, TraceContext.newId(), context.spanId, context.name,
+                    Span.Kind.QUEUE_WAIT, name, thread, dueNanos, Math.max(0, startedAt - dueNanos)));
+            //jobs scheduled from this one are children of it's span
+            TraceContext previous = TraceContext.swap(hop);
+            try {
+                run.run();
+            } finally {
+                TraceContext.swap(previous);
+                exporter.export(new Span(hop.traceId, hop.spanId, context.spanId, context.name,
+                        kind, name, thread, startedAt, System.nanoTime() - startedAt));
+            }
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package agency.v3.components.model.mvp;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import agency.v3.components.model.core.AutodisposableSubscriber;
+import agency.v3.components.model.core.CompositeDisposableBuilder;
+import agency.v3.components.model.core.Variable;
+import agency.v3.components.model.executors.JobExecutor;
+import agency.v3.components.model.helpers.ReferenceQueueWatcher;
+import agency.v3.components.model.metrics.LatencyHistogram;
+import io.reactivex.Observable;
+import io.reactivex.Observer;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Soak test of the model layer at scale: {@code presenters} presenters, each with {@code interactors} interactors over
+ * a real {@link JobExecutor}, delivering to a single-threaded stand-in for the UI loop. Every presenter goes through
+ * attach, a rotation to a new view halfway, detach and destroy, then it's replaced by a new one, for {@code minutes}.
+ * <p>
+ * Reports throughput, p99 delivery latency (from call to delivery on UI loop), bytes allocated per delivery
+ * by UI loop and worker threads, and heap retained after everything is destroyed. Views and presenters are watched
+ * once released: exits with status 1 if any of them is retained, e.g. by {@link Presenter} connections or it's destroy bag,
+ * or if any call fails, e.g. as it's rejected by {@link JobExecutor}.
+ * <p>
+ * Run it with {@code ./gradlew soak}, or e.g. {@code ./gradlew soak -PsoakArgs="--presenters 64 --minutes 10"}
+ */
+public final class SoakHarness {
+    private static final String UI_THREAD = "soak-ui";
+    private static final String WORKER_THREAD = "soak-worker-";
+    /**
+     * For how long released objects may stay reachable before they're reported as leaked
+     */
+    private static final long LEAK_THRESHOLD_SECONDS = 5;
+
+    private int presenters = 32;
+    private int interactors = 4;
+    /**
+     * Calls made by each interactor in a presenter's lifetime
+     */
+    private int calls = 50;
+    private long minutes = 5;
+    private long reportSeconds = 10;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram windowLatency = new LatencyHistogram();
+    private final LongAdder deliveries = new LongAdder();
+    private final LongAdder lifecycles = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private ExecutorService uiLoop;
+    private JobExecutor jobExecutor;
+    private Scheduler worker;
+    private Scheduler notifier;
+    private ReferenceQueueWatcher watcher;
+
+    /*accessed on UI loop only*/
+    private Slot[] slots;
+    private boolean isStopping = false;
+
+    public static void main(String[] args) throws Exception {
+        SoakHarness harness = new SoakHarness();
+        harness.parse(args);
+        System.exit(harness.run());
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            long value = Long.parseLong(args[i + 1]);
+            switch (args[i]) {
+                case "--presenters":
+                    presenters = (int) value;
+                    break;
+                case "--interactors":
+                    interactors = (int) value;
+                    break;
+                case "--calls":
+                    calls = (int) value;
+                    break;
+                case "--minutes":
+                    minutes = value;
+                    break;
+                case "--report-seconds":
+                    reportSeconds = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (presenters <= 0 || interactors <= 0 || calls < 2 || minutes <= 0 || reportSeconds <= 0) {
+            throw new IllegalArgumentException("Should provide positive options, and at least 2 calls");
+        }
+    }
+
+    private int run() throws Exception {
+        uiLoop = Executors.newSingleThreadExecutor(daemon(UI_THREAD, false));
+        notifier = Schedulers.from(uiLoop);
+        //each interactor has one call in flight at a time, so that none of them is rejected
+        jobExecutor = JobExecutor.builder()
+                .threadFactory(daemon(WORKER_THREAD, true))
+                .queueCapacity(presenters * interactors)
+                .build();
+        worker = jobExecutor.getScheduler();
+        watcher = new ReferenceQueueWatcher(LEAK_THRESHOLD_SECONDS, TimeUnit.SECONDS, (name, retainedMillis) -> {
+            leaks.increment();
+            System.out.println("LEAK: " + name + " retained for " + retainedMillis + "ms after release");
+        }, /*force GC before reporting*/true);
+        Allocations allocations = new Allocations();
+        long baselineHeap = usedHeapAfterGc();
+
+        System.out.println("Soak: " + presenters + " presenters x " + interactors + " interactors x " + calls
+                + " calls, for " + minutes + " min");
+        uiLoop.submit(this::start).get();
+
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.MINUTES.toNanos(minutes);
+        long lastReportAt = startedAt;
+        long lastDeliveries = 0;
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(reportSeconds));
+            long now = System.nanoTime();
+            long delivered = deliveries.sum();
+            System.out.printf("%5ds: %9.0f deliveries/s, p99 %7.3fms, %6d lifecycles, %d failures, %s%n",
+                    TimeUnit.NANOSECONDS.toSeconds(now - startedAt),
+                    (delivered - lastDeliveries) * 1e9 / (now - lastReportAt),
+                    windowLatency.valueAtPercentile(99) / 1e6,
+                    lifecycles.sum(),
+                    failures.sum(),
+                    allocations.perDelivery(delivered - lastDeliveries));
+            windowLatency.reset();
+            lastReportAt = now;
+            lastDeliveries = delivered;
+        }
+
+        uiLoop.submit(this::stop).get();
+        long elapsed = System.nanoTime() - startedAt;
+        //give released objects time to be collected, then the watcher time to report those that are not
+        long leakCheckDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(LEAK_THRESHOLD_SECONDS * 3);
+        while (watcher.retainedCount() > 0 && System.nanoTime() < leakCheckDeadline) {
+            System.gc();
+            Thread.sleep(500);
+        }
+        int retained = watcher.retainedCount();
+        long retainedHeap = usedHeapAfterGc() - baselineHeap;
+        uiLoop.shutdownNow();
+        jobExecutor.destroy();
+        watcher.destroy();
+
+        System.out.printf("Total: %d deliveries, %.0f deliveries/s, p99 %.3fms, max %.3fms, %d lifecycles%n",
+                deliveries.sum(), deliveries.sum() * 1e9 / elapsed,
+                latency.valueAtPercentile(99) / 1e6, latency.max() / 1e6, lifecycles.sum());
+        System.out.printf("Heap retained after destroy: %dKB, objects retained: %d, leaks reported: %d, failed calls: %d%n",
+                retainedHeap / 1024, retained, leaks.sum(), failures.sum());
+        return retained > 0 || leaks.sum() > 0 || failures.sum() > 0 ? 1 : 0;
+    }
+
+    private void start() {
+        slots = new Slot[presenters];
+        for (int i = 0; i < presenters; i++) {
+            slots[i] = new Slot();
+            slots[i].begin();
+        }
+    }
+
+    private void stop() {
+        isStopping = true;
+        for (Slot slot : slots) {
+            slot.end();
+        }
+        slots = null;
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static ThreadFactory daemon(String name, boolean isNumbered) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, isNumbered ? name + count.incrementAndGet() : name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * A presenter slot: a presenter lives in it from creation till destroy, and is replaced by a new one then.
+     * Accessed on UI loop only
+     */
+    private final class Slot {
+        private SoakPresenter presenter;
+        private SoakView view;
+        private Disposable connection;
+
+        void begin() {
+            presenter = new SoakPresenter(new SoakState(interactors), this);
+            attach();
+        }
+
+        void attach() {
+            view = new SoakView();
+            connection = presenter.attach(view);
+        }
+
+        void detach() {
+            connection.dispose();
+            watcher.watch(view, "SoakView");
+            view = null;
+            connection = null;
+        }
+
+        void end() {
+            if (presenter == null) {
+                return;
+            }
+            detach();
+            presenter.destroy();
+            watcher.watch(presenter, "SoakPresenter");
+            presenter = null;
+        }
+
+        void onDelivered(SoakPresenter from, long startedAt, int delivered) {
+            latency.record(System.nanoTime() - startedAt);
+            windowLatency.record(System.nanoTime() - startedAt);
+            deliveries.increment();
+            if (from != presenter) {
+                return;
+            }
+            int total = interactors * calls;
+            if (delivered == total / 2) {
+                //configuration change: new view is attached to retained presenter
+                detach();
+                attach();
+            } else if (delivered == total) {
+                end();
+                lifecycles.increment();
+                if (!isStopping) {
+                    begin();
+                }
+            }
+        }
+    }
+
+    static final class SoakState {
+        final Variable<Long>[] results;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        SoakState(int size) {
+            results = new Variable[size];
+            for (int i = 0; i < size; i++) {
+                results[i] = Variable.value(0L);
+            }
+        }
+    }
+
+    static final class SoakView implements IView {
+        long rendered;
+
+        void render(Long value) {
+            rendered += value;
+        }
+    }
+
+    private final class SoakPresenter extends Presenter<SoakView, SoakState> {
+        private final Slot slot;
+        private final SoakInteractor[] interactors;
+        private int delivered = 0;
+
+        SoakPresenter(SoakState state, Slot slot) {
+            super(state);
+            this.slot = slot;
+            this.interactors = new SoakInteractor[state.results.length];
+            for (int i = 0; i < interactors.length; i++) {
+                interactors[i] = new SoakInteractor(worker, notifier);
+            }
+        }
+
+        @Override
+        protected void onInit() {
+            for (int i = 0; i < interactors.length; i++) {
+                load(i, calls);
+            }
+        }
+
+        private void load(int interactor, int remaining) {
+            interactors[interactor].load(untilDestroy(new Observer<Long>() {
+                @Override
+                public void onSubscribe(Disposable d) {
+
+                }
+
+                @Override
+                public void onNext(Long startedAt) {
+                    state.results[interactor].setValue(startedAt);
+                    slot.onDelivered(SoakPresenter.this, startedAt, ++delivered);
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                    //presenter's lifecycle stalls, as this interactor makes no more calls
+                    if (failures.sum() == 0) {
+                        e.printStackTrace();
+                    }
+                    failures.increment();
+                }
+
+                @Override
+                public void onComplete() {
+                    if (remaining > 1) {
+                        load(interactor, remaining - 1);
+                    }
+                }
+            }));
+        }
+
+        @Override
+        protected Disposable onAttach(SoakView view) {
+            CompositeDisposableBuilder builder = bind();
+            for (Variable<Long> result : state.results) {
+                builder.add(result.observe(view::render));
+            }
+            return builder.get();
+        }
+    }
+
+    static final class SoakInteractor extends Interactor {
+
+        SoakInteractor(Scheduler worker, Scheduler notifier) {
+            super(worker, notifier);
+        }
+
+        /**
+         * Emits time of the call, after a bit of allocating work on worker
+         */
+        void load(AutodisposableSubscriber<Long> subscriber) {
+            long startedAt = System.nanoTime();
+            applySchedulers(Observable.fromCallable(() -> {
+                String payload = String.valueOf(startedAt);
+                return Long.parseLong(payload);
+            }), subscriber);
+        }
+    }
+
+    /**
+     * Bytes allocated by UI loop and worker threads, since last report. Bytes of worker threads that terminated
+     * in between are not accounted for
+     */
+    private static final class Allocations {
+        private final com.sun.management.ThreadMXBean threads;
+        private long lastUi = 0;
+        private long lastWorkers = 0;
+
+        Allocations() {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+                threads = (com.sun.management.ThreadMXBean) bean;
+                threads.setThreadAllocatedMemoryEnabled(true);
+            } else {
+                threads = null;
+            }
+        }
+
+        String perDelivery(long delivered) {
+            if (threads == null) {
+                return "allocations n/a";
+            }
+            long[] ids = threads.getAllThreadIds();
+            ThreadInfo[] infos = threads.getThreadInfo(ids);
+            long[] allocated = threads.getThreadAllocatedBytes(ids);
+            long ui = 0;
+            long workers = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (infos[i] == null || allocated[i] < 0) {
+                    continue;
+                }
+                String name = infos[i].getThreadName();
+                if (name.equals(UI_THREAD)) {
+                    ui += allocated[i];
+                } else if (name.startsWith(WORKER_THREAD)) {
+                    workers += allocated[i];
+                }
+            }
+            long perDeliveryUi = delivered > 0 ? (ui - lastUi) / delivered : 0;
+            long perDeliveryWorkers = delivered > 0 ? Math.max(0, workers - lastWorkers) / delivered : 0;
+            lastUi = ui;
+            lastWorkers = workers;
+            return String.format("allocated/delivery: ui %dB, workers %dB", perDeliveryUi, perDeliveryWorkers);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package agency.v3.components.model.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Values that collide with LongVariable's sentinel and escape words are held and delivered like any other value
+ */
+public class LongVariableTest {
+    private static final long NO_VALUE = Long.MIN_VALUE + 1;
+    private static final long ESCAPED = Long.MIN_VALUE + 2;
+
+    @Test
+    public void escapedValuesAreHeldAndDistinct() {
+        LongVariable variable = LongVariable.empty();
+        List<Long> delivered = new ArrayList<>();
+        variable.observe(delivered::add);
+
+        variable.setValue(NO_VALUE);
+        assertTrue(variable.hasValue());
+        assertEquals(NO_VALUE, variable.getValue());
+
+        variable.setValue(NO_VALUE);
+        variable.setValue(ESCAPED);
+        variable.setValue(5);
+        variable.setValue(ESCAPED);
+        assertEquals(Arrays.asList(NO_VALUE, ESCAPED, 5L, ESCAPED), delivered);
+        assertEquals(ESCAPED, LongVariable.value(ESCAPED).getValue());
+    }
+
+    @Test
+    public void escapedSignalIsConsumedOnce() {
+        LongVariable signal = LongVariable.signal();
+        signal.setValue(NO_VALUE);
+        assertTrue(signal.hasValue());
+
+        List<Long> first = new ArrayList<>();
+        List<Long> second = new ArrayList<>();
+        signal.observe(first::add);
+        signal.observe(second::add);
+        assertEquals(Arrays.asList(NO_VALUE), first);
+        assertFalse(signal.hasValue());
+
+        signal.setValue(ESCAPED);
+        assertEquals(Arrays.asList(NO_VALUE, ESCAPED), first);
+        assertEquals(Arrays.asList(ESCAPED), second);
+        assertFalse(signal.hasValue());
+    }
+}
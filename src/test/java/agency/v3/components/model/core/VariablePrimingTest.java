@@ -0,0 +1,122 @@
+package agency.v3.components.model.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Priming of a new observer racing a synchronous setValue: each value is delivered once, and consumers are never
+ * called while holding a lock
+ */
+public class VariablePrimingTest {
+    private static final int RUNS = 20000;
+
+    @Test
+    public void valueSetWhileSubscribingIsDeliveredOnce() throws Exception {
+        for (int run = 0; run < RUNS; run++) {
+            Variable<Integer> variable = Variable.value(0);
+            List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+            race(() -> variable.observe(delivered::add), () -> variable.setValue(1));
+
+            assertEquals("run " + run + ": " + delivered, 1, Collections.frequency(delivered, 1));
+            assertTrue("run " + run + ": " + delivered, delivered.size() <= 2);
+        }
+    }
+
+    @Test
+    public void primitiveValueSetWhileSubscribingIsDeliveredOnce() throws Exception {
+        for (int run = 0; run < RUNS; run++) {
+            IntVariable variable = IntVariable.value(0);
+            AtomicInteger ones = new AtomicInteger();
+            race(() -> variable.observe(value -> {
+                if (value == 1) {
+                    ones.incrementAndGet();
+                }
+            }), () -> variable.setValue(1));
+
+            assertEquals("run " + run, 1, ones.get());
+        }
+    }
+
+    @Test
+    public void signalSetWhileSubscribingIsConsumedOnce() throws Exception {
+        for (int run = 0; run < RUNS; run++) {
+            Variable<String> signal = Variable.signal();
+            AtomicInteger consumed = new AtomicInteger();
+            race(() -> signal.observe(value -> consumed.incrementAndGet()), () -> signal.setValue("event"));
+
+            assertEquals("run " + run, 1, consumed.get());
+            assertNull("run " + run, signal.getValue());
+        }
+    }
+
+    /**
+     * Each thread primes an observer whose consumer sets the variable the other thread's observer is primed on
+     */
+    @Test(timeout = 10000)
+    public void consumersSettingEachOtherWhilePrimingDoNotDeadlock() throws Exception {
+        for (int run = 0; run < 100; run++) {
+            Variable<Integer> first = Variable.value(0);
+            Variable<Integer> second = Variable.value(0);
+            CountDownLatch bothPriming = new CountDownLatch(2);
+            Thread a = new Thread(() -> first.observe(value -> {
+                if (value == 0) {
+                    awaitOther(bothPriming);
+                    second.setValue(1);
+                }
+            }));
+            Thread b = new Thread(() -> second.observe(value -> {
+                if (value == 0) {
+                    awaitOther(bothPriming);
+                    first.setValue(1);
+                }
+            }));
+            a.start();
+            b.start();
+            a.join(TimeUnit.SECONDS.toMillis(5));
+            b.join(TimeUnit.SECONDS.toMillis(5));
+
+            assertFalse("run " + run + " deadlocked", a.isAlive() || b.isAlive());
+        }
+    }
+
+    private static void awaitOther(CountDownLatch bothPriming) {
+        bothPriming.countDown();
+        try {
+            bothPriming.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void race(Runnable first, Runnable second) throws Exception {
+        CyclicBarrier start = new CyclicBarrier(2);
+        Thread thread = new Thread(() -> {
+            await(start);
+            second.run();
+        });
+        thread.start();
+        await(start);
+        first.run();
+        thread.join();
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
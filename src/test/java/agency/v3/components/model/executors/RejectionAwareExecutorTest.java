@@ -0,0 +1,78 @@
+package agency.v3.components.model.executors;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.plugins.RxJavaPlugins;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A rejected subscription fails it's stream, and no rejected job is run on submitting thread
+ */
+public class RejectionAwareExecutorTest {
+
+    @Test(timeout = 10000)
+    public void rejectedSubscriptionFailsStreamWithoutRunning() throws Exception {
+        JobExecutor executor = JobExecutor.builder().threadFactory(Thread::new).queueCapacity(1).poolSize(1, 1).build();
+        Scheduler scheduler = executor.getScheduler();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            saturate(scheduler, release);
+            AtomicBoolean isRun = new AtomicBoolean();
+
+            RejectionAwareExecutor.subscribeOn(Observable.fromCallable(() -> isRun.getAndSet(true)), scheduler)
+                    .test()
+                    .assertError(RejectedExecutionException.class)
+                    .assertNoValues();
+            RejectionAwareExecutor.subscribeOn(Flowable.fromCallable(() -> isRun.getAndSet(true)), scheduler)
+                    .test()
+                    .assertError(RejectedExecutionException.class)
+                    .assertNoValues();
+            assertFalse(isRun.get());
+        } finally {
+            release.countDown();
+            executor.destroy();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void rejectedJobIsNotRunInline() throws Exception {
+        JobExecutor executor = JobExecutor.builder().threadFactory(Thread::new).queueCapacity(1).poolSize(1, 1).build();
+        executor.destroy();
+        AtomicBoolean isRun = new AtomicBoolean();
+        AtomicBoolean isReported = new AtomicBoolean();
+        RxJavaPlugins.setErrorHandler(e -> isReported.set(e.getCause() instanceof RejectedExecutionException));
+        try {
+            Observable.fromCallable(() -> isRun.getAndSet(true)).subscribeOn(executor.getScheduler()).subscribe();
+
+            assertFalse(isRun.get());
+            assertTrue(isReported.get());
+        } finally {
+            RxJavaPlugins.setErrorHandler(null);
+        }
+    }
+
+    /**
+     * Blocks the only pool thread, and fills the queue
+     */
+    private static void saturate(Scheduler scheduler, CountDownLatch release) throws InterruptedException {
+        CountDownLatch isBlocked = new CountDownLatch(1);
+        scheduler.scheduleDirect(() -> {
+            isBlocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        isBlocked.await();
+        scheduler.scheduleDirect(() -> { });
+    }
+}